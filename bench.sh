@@ -0,0 +1,20 @@
+#!/bin/bash
+
+echo
+echo "========================================"
+echo "  Personal Finance Manager - Benchmarks"
+echo "========================================"
+echo
+
+echo "Compiling Java files..."
+mkdir -p build/bench
+javac -encoding UTF-8 -d build/bench src/*.java bench/*.java
+
+if [ $? -ne 0 ]; then
+    echo
+    echo "❌ Compilation failed! Please check for errors."
+    exit 1
+fi
+
+# The 10M-row ledger needs a large heap; pass --sizes=10000,1000000 for a quick run
+java -Xmx8g -cp build/bench bench.FinanceBenchmark "$@"
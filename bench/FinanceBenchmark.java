@@ -0,0 +1,209 @@
+package bench;
+
+import src.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+// Self-contained benchmark runner; results are written in the JMH JSON layout
+public class FinanceBenchmark {
+    private static final long MIN_ITERATION_NANOS = 200_000_000L;
+    private static final int DESCRIPTION_POOL = 1000;
+
+    private static volatile Object blackhole;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final List<String> results = new ArrayList<>();
+    private final PrintStream console = System.out;
+    private final PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+
+    public FinanceBenchmark(int warmupIterations, int measurementIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = {10_000, 1_000_000, 10_000_000};
+        String output = "bench/results.json";
+        int warmup = 3;
+        int iterations = 5;
+
+        for (String arg : args) {
+            if (arg.startsWith("--sizes=")) {
+                sizes = Arrays.stream(arg.substring(8).split(",")).mapToInt(Integer::parseInt).toArray();
+            } else if (arg.startsWith("--out=")) {
+                output = arg.substring(6);
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Integer.parseInt(arg.substring(9));
+            } else if (arg.startsWith("--iterations=")) {
+                iterations = Integer.parseInt(arg.substring(13));
+            } else {
+                System.err.println("Usage: FinanceBenchmark [--sizes=10000,1000000] [--out=file.json] "
+                                 + "[--warmup=3] [--iterations=5]");
+                System.exit(1);
+            }
+        }
+
+        FinanceBenchmark benchmark = new FinanceBenchmark(warmup, iterations);
+        for (int size : sizes) {
+            benchmark.runLedger(size);
+        }
+        benchmark.writeResults(Paths.get(output));
+        System.out.println("Results written to " + output);
+    }
+
+    private void runLedger(int rows) throws Exception {
+        System.out.printf("%n=== Ledger with %,d transactions ===%n", rows);
+        Path dataDir = Files.createTempDirectory("pfm-bench");
+        try {
+            TransactionStore ledger = syntheticLedger(rows);
+            DataManager dataManager = new DataManager(dataDir.toString(), false, false);
+            quietly(() -> { dataManager.saveTransactions(ledger); return null; });
+
+            YearMonth month = YearMonth.now();
+            int year = month.getYear();
+            BudgetHistory budgets = new BudgetHistory();
+            for (String category : Category.EXPENSE_CATEGORIES) {
+                budgets.setBudgetCents(month, Category.intern(category), 500_00);
+            }
+            ReportGenerator reports = new ReportGenerator(ledger, budgets);
+            int foodId = Category.lookup("Food & Dining");
+            ledger.getAggregates();
+            ledger.getDateIndex();
+
+            measure("DataManager.loadTransactions", rows, () -> quietly(dataManager::loadTransactions));
+            measure("DataManager.saveTransactions", rows,
+                    () -> quietly(() -> { dataManager.saveTransactions(ledger); return null; }));
+            // Cold runs clear the report cache first so every call computes and renders the report;
+            // the cached runs measure a repeated view of an unchanged period
+            measure("ReportGenerator.generateMonthlyReport", rows,
+                    () -> quietly(() -> {
+                        reports.getCache().clear();
+                        reports.generateMonthlyReport(month);
+                        return null;
+                    }));
+            measure("ReportGenerator.generateMonthlyReport.cached", rows,
+                    () -> quietly(() -> { reports.generateMonthlyReport(month); return null; }));
+            measure("ReportGenerator.generateYearlyReport", rows,
+                    () -> quietly(() -> {
+                        reports.getCache().clear();
+                        reports.generateYearlyReport(year);
+                        return null;
+                    }));
+            measure("ReportGenerator.generateYearlyReport.cached", rows,
+                    () -> quietly(() -> { reports.generateYearlyReport(year); return null; }));
+            // Same lookup FinanceManager.getMonthlySpending performs for each budget check
+            measure("FinanceManager.getMonthlySpending", rows,
+                    () -> ledger.getAggregates().getCents(month, foodId, TransactionStore.EXPENSE));
+            measure("Category.isValidCategory", rows,
+                    () -> Category.isValidCategory("Entertainment", "EXPENSE"));
+        } finally {
+            deleteRecursively(dataDir);
+        }
+    }
+
+    // Runs whole batches of calls until each iteration lasts long enough to time reliably
+    private void measure(String name, int rows, Callable<Object> operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(operation);
+        }
+
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            scores[i] = runIteration(operation);
+        }
+
+        double mean = Arrays.stream(scores).average().orElse(0);
+        double variance = Arrays.stream(scores).map(s -> (s - mean) * (s - mean)).sum()
+                        / Math.max(1, scores.length - 1);
+        double error = Math.sqrt(variance);
+
+        System.out.printf("%-42s %,16.3f +- %,12.3f us/op%n", name, mean, error);
+        results.add(toJson(name, rows, mean, error, scores));
+    }
+
+    private double runIteration(Callable<Object> operation) throws Exception {
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            blackhole = operation.call();
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < MIN_ITERATION_NANOS);
+        return elapsed / 1000.0 / operations;
+    }
+
+    private Object quietly(Callable<Object> operation) throws Exception {
+        System.setOut(nullStream);
+        try {
+            return operation.call();
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static TransactionStore syntheticLedger(int rows) {
+        Random random = new Random(42);
+        List<String> expenses = Category.EXPENSE_CATEGORIES;
+        List<String> incomes = Category.INCOME_CATEGORIES;
+        String[] descriptions = new String[DESCRIPTION_POOL];
+        for (int i = 0; i < descriptions.length; i++) {
+            descriptions[i] = "Synthetic purchase " + i;
+        }
+
+        int today = (int) LocalDate.now().toEpochDay();
+        int span = 10 * 365;
+        TransactionStore store = new TransactionStore(rows);
+        for (int id = 1; id <= rows; id++) {
+            boolean income = random.nextInt(10) == 0;
+            String category = income ? incomes.get(random.nextInt(incomes.size()))
+                                     : expenses.get(random.nextInt(expenses.size()));
+            long cents = income ? 100_000 + random.nextInt(500_000) : 100 + random.nextInt(50_000);
+            store.add(id, income ? TransactionStore.INCOME : TransactionStore.EXPENSE, cents,
+                      Category.intern(category), descriptions[random.nextInt(descriptions.length)],
+                      today - random.nextInt(span));
+        }
+        return store;
+    }
+
+    private static String toJson(String name, int rows, double score, double error, double[] scores) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < scores.length; i++) {
+            if (i > 0) raw.append(", ");
+            raw.append(String.format(Locale.ROOT, "%.3f", scores[i]));
+        }
+        return String.format(Locale.ROOT,
+            "    {\n" +
+            "        \"benchmark\" : \"%s\",\n" +
+            "        \"mode\" : \"avgt\",\n" +
+            "        \"params\" : { \"rows\" : \"%d\" },\n" +
+            "        \"primaryMetric\" : {\n" +
+            "            \"score\" : %.3f,\n" +
+            "            \"scoreError\" : %.3f,\n" +
+            "            \"scoreUnit\" : \"us/op\",\n" +
+            "            \"rawData\" : [ [ %s ] ]\n" +
+            "        }\n" +
+            "    }", name, rows, score, error, raw);
+    }
+
+    private void writeResults(Path output) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        String json = "[\n" + String.join(",\n", results) + "\n]\n";
+        Files.write(output, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (java.util.stream.Stream<Path> walk = Files.walk(path)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
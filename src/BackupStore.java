@@ -0,0 +1,293 @@
+package src;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Content-addressed backup store.
+ *
+ * backups/objects/<sha-256>       one copy of every distinct file content
+ * backups/backup_<timestamp>/     hard links into objects (plain copies where links are unsupported)
+ *                                 plus a manifest of name,hash lines
+ * backups/index.csv               name,size,modified,hash of the last backed up sources, so
+ *                                 unchanged files are neither re-read nor re-copied
+ *
+ * Whole files are the unit of sharing so every backup directory stays a plain, restorable copy of
+ * the data folder. transactions.csv keeps rows in insertion order with months interleaved, so its
+ * months are not contiguous byte ranges that could be stored apart.
+ */
+public class BackupStore {
+    private static final String PREFIX = "backup_";
+    private static final String MANIFEST = "backup.manifest";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final Path root;
+    private final Path objects;
+    private final Path indexFile;
+
+    // Retention: the newest keepLast backups, plus the newest backup of each of the
+    // last keepDaily days and of each of the last keepMonthly months
+    private final int keepLast;
+    private final int keepDaily;
+    private final int keepMonthly;
+
+    public BackupStore(Path root) {
+        this(root, 24, 30, 12);
+    }
+
+    public BackupStore(Path root, int keepLast, int keepDaily, int keepMonthly) {
+        this.root = root;
+        this.objects = root.resolve("objects");
+        this.indexFile = root.resolve("index.csv");
+        this.keepLast = keepLast;
+        this.keepDaily = keepDaily;
+        this.keepMonthly = keepMonthly;
+    }
+
+    // Backs up the existing files among sources and returns the new backup directory
+    public Path backup(List<Path> sources) throws IOException {
+        Files.createDirectories(objects);
+        Map<String, String[]> index = readIndex();
+
+        LocalDateTime now = LocalDateTime.now();
+        Path backupDir = root.resolve(PREFIX + now.format(TIMESTAMP));
+        Files.createDirectories(backupDir);
+
+        List<String> manifest = new ArrayList<>();
+        for (Path source : sources) {
+            if (!Files.isRegularFile(source)) continue;
+
+            String name = source.getFileName().toString();
+            long size = Files.size(source);
+            long modified = Files.getLastModifiedTime(source).toMillis();
+
+            String[] cached = index.get(name);
+            String hash;
+            if (cached != null && Long.parseLong(cached[1]) == size && Long.parseLong(cached[2]) == modified
+                    && Files.exists(objects.resolve(cached[3]))) {
+                hash = cached[3];
+            } else {
+                hash = hash(source);
+                storeObject(source, hash);
+                index.put(name, new String[] { name, Long.toString(size), Long.toString(modified), hash });
+            }
+
+            link(objects.resolve(hash), backupDir.resolve(name));
+            manifest.add(name + "," + hash);
+        }
+
+        Files.write(backupDir.resolve(MANIFEST), manifest, StandardCharsets.UTF_8);
+        writeIndex(index);
+        prune(now);
+        return backupDir;
+    }
+
+    public List<Path> listBackups() throws IOException {
+        List<Path> backups = new ArrayList<>();
+        if (!Files.isDirectory(root)) return backups;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, PREFIX + "*")) {
+            for (Path dir : stream) {
+                if (parseTimestamp(dir) != null) backups.add(dir);
+            }
+        }
+        backups.sort(Comparator.comparing(BackupStore::parseTimestamp));
+        return backups;
+    }
+
+    // Removes backups outside the retention policy, then any objects no backup refers to
+    public void prune(LocalDateTime now) throws IOException {
+        List<Path> backups = listBackups();
+        Set<Path> keep = new HashSet<>();
+        Set<String> days = new HashSet<>();
+        Set<String> months = new HashSet<>();
+
+        for (int i = backups.size() - 1; i >= 0; i--) {
+            Path backup = backups.get(i);
+            LocalDateTime time = parseTimestamp(backup);
+            String day = time.toLocalDate().toString();
+            String month = day.substring(0, 7);
+
+            if (backups.size() - i <= keepLast) {
+                keep.add(backup);
+            }
+            if (time.isAfter(now.minusDays(keepDaily)) && days.add(day)) {
+                keep.add(backup);
+            }
+            if (time.isAfter(now.minusMonths(keepMonthly)) && months.add(month)) {
+                keep.add(backup);
+            }
+        }
+
+        Set<String> referenced = new HashSet<>();
+        for (Path backup : backups) {
+            Map<String, String> manifest = readManifest(backup);
+            // A backup that could not be removed completely keeps its objects
+            if (keep.contains(backup) || !deleteBackup(backup, manifest)) {
+                referenced.addAll(manifest.values());
+            }
+        }
+
+        if (!Files.isDirectory(objects)) return;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(objects)) {
+            for (Path object : stream) {
+                if (!referenced.contains(object.getFileName().toString())) {
+                    // Nothing links it any more, so its read-only flag protects nothing
+                    object.toFile().setWritable(true);
+                    delete(object, null);
+                }
+            }
+        }
+    }
+
+    private void storeObject(Path source, String hash) throws IOException {
+        Path object = objects.resolve(hash);
+        if (Files.exists(object)) return;
+
+        Path temp = objects.resolve(hash + ".tmp");
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+        // Objects are shared by every backup that links them, so they must never change
+        temp.toFile().setReadOnly();
+        Files.move(temp, object, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void link(Path object, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, object);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(object, target);
+        }
+    }
+
+    private static String hash(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 not available", e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private Map<String, String[]> readIndex() throws IOException {
+        Map<String, String[]> index = new HashMap<>();
+        if (!Files.exists(indexFile)) return index;
+
+        for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(",");
+            if (parts.length == 4) {
+                index.put(parts[0], parts);
+            }
+        }
+        return index;
+    }
+
+    private void writeIndex(Map<String, String[]> index) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String[] entry : index.values()) {
+            lines.add(String.join(",", entry));
+        }
+        Path temp = root.resolve("index.csv.tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // File name to object hash for each file in a backup
+    private static Map<String, String> readManifest(Path backup) throws IOException {
+        Map<String, String> hashes = new HashMap<>();
+        Path manifest = backup.resolve(MANIFEST);
+        if (!Files.exists(manifest)) return hashes;
+
+        for (String line : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+            int comma = line.lastIndexOf(',');
+            if (comma > 0) {
+                hashes.put(line.substring(0, comma), line.substring(comma + 1));
+            }
+        }
+        return hashes;
+    }
+
+    private static LocalDateTime parseTimestamp(Path backup) {
+        try {
+            return LocalDateTime.parse(backup.getFileName().toString().substring(PREFIX.length()), TIMESTAMP);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Unlinks the backup's files and then the directory; the objects they link are left alone
+    private boolean deleteBackup(Path backup, Map<String, String> manifest) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(backup)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        boolean deleted = true;
+        for (Path p : paths) {
+            String hash = p.getParent() != null && p.getParent().equals(backup)
+                        ? manifest.get(p.getFileName().toString()) : null;
+            deleted &= delete(p, hash == null ? null : objects.resolve(hash));
+        }
+        return deleted;
+    }
+
+    // A failure is reported and pruning carries on with the next file. Removing a link leaves
+    // the shared file, and its read-only flag, in place for every other backup. Windows alone
+    // refuses to remove a read-only link, so there the flag is cleared for the retry and then
+    // set again on the object the link pointed to.
+    private static boolean delete(Path path, Path object) {
+        try {
+            try {
+                Files.deleteIfExists(path);
+            } catch (AccessDeniedException e) {
+                if (!WINDOWS) throw e;
+                path.toFile().setWritable(true);
+                try {
+                    Files.deleteIfExists(path);
+                } finally {
+                    if (object != null && Files.exists(object)) {
+                        object.toFile().setReadOnly();
+                    }
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error deleting old backup file " + path + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
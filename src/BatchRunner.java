@@ -0,0 +1,393 @@
+package src;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+// Non-interactive commands for scripts and cron jobs. Each dataset is loaded on first use,
+// so a command reads only the files it needs; a batch runs many commands over one load.
+// Reports and budgets read transactions.csv only from the first month they cover, through the
+// month partition index; commands that need every row page the rest in.
+// Results go to stdout as one JSON document per line (exports as CSV); everything else to stderr.
+public class BatchRunner {
+    private static final String USAGE =
+        "Usage: FinanceManager [--data DIR] <command> [args]\n"
+        + "Commands:\n"
+        + "  report monthly YYYY-MM\n"
+        + "  report yearly YYYY\n"
+        + "  report range YYYY-MM YYYY-MM\n"
+        + "  export [--from YYYY-MM-DD] [--to YYYY-MM-DD] [--type income|expense]\n"
+        + "         [--category NAME] [--out FILE [--gzip]]\n"
+        + "  search WORD...\n"
+        + "  stats\n"
+        + "  budget [YYYY-MM]\n"
+        + "  budget year YYYY\n"
+        + "  goals\n"
+        + "  serve [PORT]     serve the JSON API on localhost until stopped (default port 8080)\n"
+        + "  batch [FILE]     run one command per line from FILE or stdin over a single load";
+
+    private final DataManager dataManager;
+    private final PrintStream out;
+
+    private boolean categoriesLoaded;
+    private TransactionStore transactions;
+    private BudgetHistory budgets;
+    private List<SavingsGoal> goals;
+    private ReportEngine engine;
+
+    public BatchRunner(DataManager dataManager, PrintStream out) {
+        this.dataManager = dataManager;
+        this.out = out;
+    }
+
+    // Entry point from main; returns the process exit status
+    public static int runCommandLine(String[] args) {
+        int first = 0;
+        String dataDir = "data/";
+        if (args.length >= 2 && args[0].equals("--data")) {
+            dataDir = args[1];
+            first = 2;
+        }
+        if (first >= args.length || args[first].equals("help") || args[first].equals("--help")) {
+            System.err.println(USAGE);
+            return first >= args.length ? 2 : 0;
+        }
+
+        // Loaders report progress on stdout; keep that channel for results only
+        PrintStream results = new PrintStream(new FileOutputStream(FileDescriptor.out), false, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+        try {
+            DataManager dataManager = new DataManager(dataDir, Boolean.getBoolean("finance.journal"),
+                                                      Boolean.getBoolean("finance.parallelLoad"), true);
+            BatchRunner runner = new BatchRunner(dataManager, results);
+            return runner.run(Arrays.copyOfRange(args, first, args.length));
+        } finally {
+            results.flush();
+        }
+    }
+
+    public int run(String[] command) {
+        if (command[0].equals("batch")) {
+            return runBatch(command.length > 1 ? command[1] : "-");
+        }
+        if (command[0].equals("serve")) {
+            try {
+                return serve(command.length > 1 ? Integer.parseInt(command[1]) : 8080);
+            } catch (NumberFormatException e) {
+                System.err.println("Error in '" + String.join(" ", command) + "': port must be a number");
+                return 2;
+            }
+        }
+        return execute(command) ? 0 : 1;
+    }
+
+    // Loads everything once, then answers requests until the process is stopped
+    private int serve(int port) {
+        Ledger ledger = new Ledger(transactions());
+        // Built now rather than by the first requests; snapshots share or copy them from then on
+        ledger.write(() -> {
+            transactions().getDateIndex().size();
+            transactions().getDescriptionIndex();
+            transactions().getAggregates();
+        });
+        budgets();
+        goals();
+        LedgerServer server = new LedgerServer(ledger, this::budgets, this::goals);
+        try {
+            server.start(port);
+        } catch (IOException e) {
+            System.err.println("Error starting JSON API: " + e.getMessage());
+            return 1;
+        }
+        out.println(new JsonWriter().beginObject()
+            .field("listening", "http://localhost:" + server.getPort() + "/api/")
+            .field("virtualThreads", LedgerServer.usesVirtualThreads())
+            .endObject());
+        out.flush();
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.stop();
+        return 0;
+    }
+
+    // Failed commands are reported and skipped; the status is non-zero if any failed
+    private int runBatch(String source) {
+        boolean ok = true;
+        try (BufferedReader reader = source.equals("-")
+                 ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                 : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                ok &= execute(splitArgs(line));
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading batch commands: " + e.getMessage());
+            return 1;
+        }
+        return ok ? 0 : 1;
+    }
+
+    private boolean execute(String[] command) {
+        try {
+            switch (command[0]) {
+                case "report":
+                    report(command);
+                    break;
+                case "export":
+                    export(command);
+                    break;
+                case "search":
+                    search(command);
+                    break;
+                case "stats":
+                    JsonWriter stats = new JsonWriter();
+                    LedgerJson.stats(stats, transactions());
+                    out.println(stats);
+                    break;
+                case "budget":
+                    budget(command);
+                    break;
+                case "goals":
+                    JsonWriter goalsJson = new JsonWriter();
+                    LedgerJson.goals(goalsJson, goals());
+                    out.println(goalsJson);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + command[0]);
+            }
+            return true;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            System.err.println("Error in '" + String.join(" ", command) + "': " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error running '" + String.join(" ", command) + "': " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void report(String[] command) {
+        String kind = argument(command, 1, "report kind");
+        int firstMonth;
+        int lastMonth;
+        switch (kind) {
+            case "monthly":
+                firstMonth = TransactionStore.epochMonth(YearMonth.parse(argument(command, 2, "month")));
+                lastMonth = firstMonth;
+                break;
+            case "yearly":
+                int year = Integer.parseInt(argument(command, 2, "year"));
+                firstMonth = TransactionStore.epochMonth(YearMonth.of(year, 1));
+                lastMonth = firstMonth + 11;
+                break;
+            case "range":
+                firstMonth = TransactionStore.epochMonth(YearMonth.parse(argument(command, 2, "first month")));
+                lastMonth = TransactionStore.epochMonth(YearMonth.parse(argument(command, 3, "last month")));
+                if (lastMonth < firstMonth) {
+                    throw new IllegalArgumentException("last month is before first month");
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown report: " + kind);
+        }
+        TransactionStore store = transactionsFrom(TransactionStore.toYearMonth(firstMonth));
+        JsonWriter json = new JsonWriter();
+        LedgerJson.report(json, store, engine(store).compute(firstMonth, lastMonth));
+        out.println(json);
+    }
+
+    private void budget(String[] command) {
+        JsonWriter json = new JsonWriter();
+        if (command.length > 1 && command[1].equals("year")) {
+            int year = Integer.parseInt(argument(command, 2, "year"));
+            TransactionStore store = transactionsFrom(YearMonth.of(year, 1));
+            LedgerJson.budgetYear(json, budgets().compareYear(year, store.getAggregates()));
+        } else {
+            YearMonth month = command.length > 1 ? YearMonth.parse(command[1]) : YearMonth.now();
+            TransactionStore store = transactionsFrom(month);
+            LedgerJson.budget(json, month, budgets().getEffectiveBudget(month), engine(store).computeMonth(month));
+        }
+        out.println(json);
+    }
+
+    private void export(String[] command) throws IOException {
+        TransactionFilter filter = TransactionFilter.all();
+        LocalDate from = null;
+        LocalDate to = null;
+        String target = null;
+        boolean gzip = false;
+
+        for (int i = 1; i < command.length; i++) {
+            switch (command[i]) {
+                case "--from":
+                    from = LocalDate.parse(argument(command, ++i, "--from date"));
+                    break;
+                case "--to":
+                    to = LocalDate.parse(argument(command, ++i, "--to date"));
+                    break;
+                case "--type":
+                    String type = argument(command, ++i, "--type");
+                    if (!type.equalsIgnoreCase("income") && !type.equalsIgnoreCase("expense")) {
+                        throw new IllegalArgumentException("--type must be income or expense");
+                    }
+                    filter.ofType(TransactionStore.typeCode(type));
+                    break;
+                case "--category":
+                    filter.inCategory(findCategory(argument(command, ++i, "--category")));
+                    break;
+                case "--out":
+                    target = argument(command, ++i, "--out file");
+                    break;
+                case "--gzip":
+                    gzip = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown export option: " + command[i]);
+            }
+        }
+        if (from != null || to != null) {
+            filter.between(from, to);
+        }
+
+        TransactionExporter exporter = new TransactionExporter(transactions());
+        if (target == null) {
+            if (gzip) {
+                throw new IllegalArgumentException("--gzip needs --out");
+            }
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            exporter.write(writer, filter);
+            writer.flush();
+        } else {
+            int written = exporter.export(Paths.get(target), filter, gzip);
+            out.println(new JsonWriter().beginObject()
+                .field("exported", written)
+                .field("file", target)
+                .endObject());
+        }
+    }
+
+    private void search(String[] command) {
+        if (command.length < 2) {
+            throw new IllegalArgumentException("search needs at least one word");
+        }
+        String query = String.join(" ", Arrays.copyOfRange(command, 1, command.length));
+        int[] rows = transactions().getDescriptionIndex().searchRows(transactions(), query);
+        transactions().sortByDateDescending(rows);
+        JsonWriter json = new JsonWriter();
+        LedgerJson.transactions(json, transactions(), rows);
+        out.println(json);
+    }
+
+    // Datasets, each read on first use
+    private void loadCategories() {
+        if (!categoriesLoaded) {
+            dataManager.loadCustomCategories();
+            categoriesLoaded = true;
+        }
+    }
+
+    private TransactionStore transactions() {
+        if (transactions == null) {
+            loadCategories();
+            LedgerSnapshot snapshot = dataManager.loadSnapshot();
+            if (snapshot != null) {
+                transactions = snapshot.getTransactions();
+                if (budgets == null) budgets = snapshot.getBudgets();
+                if (goals == null) goals = snapshot.getGoals();
+            } else {
+                transactions = dataManager.loadTransactions();
+            }
+        } else {
+            dataManager.ensureFullyLoaded(transactions);
+        }
+        return transactions;
+    }
+
+    // Every row dated in the month or later; older months may not be in memory yet
+    private TransactionStore transactionsFrom(YearMonth month) {
+        if (transactions == null) {
+            loadCategories();
+            transactions = dataManager.loadRecentTransactions(month);
+        } else {
+            dataManager.ensureLoaded(transactions, month);
+        }
+        return transactions;
+    }
+
+    private BudgetHistory budgets() {
+        if (budgets == null) {
+            loadCategories();
+            budgets = dataManager.loadBudget();
+        }
+        return budgets;
+    }
+
+    private List<SavingsGoal> goals() {
+        if (goals == null) {
+            goals = dataManager.loadSavingsGoals();
+        }
+        return goals;
+    }
+
+    private ReportEngine engine(TransactionStore store) {
+        if (engine == null) {
+            engine = new ReportEngine(store,
+                Boolean.getBoolean("finance.parallelReports") ? ForkJoinPool.commonPool() : null);
+        }
+        return engine;
+    }
+
+    private int findCategory(String name) {
+        TransactionStore store = transactions();
+        for (int id = 0; id < store.getCategoryCount(); id++) {
+            if (store.getCategoryName(id).equalsIgnoreCase(name)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private static String argument(String[] command, int index, String what) {
+        if (index >= command.length) {
+            throw new IllegalArgumentException("missing " + what);
+        }
+        return command[index];
+    }
+
+    // Splits on whitespace; double quotes group words such as "Food & Dining"
+    static String[] splitArgs(String line) {
+        List<String> args = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean inArg = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inArg = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inArg) {
+                    args.add(current.toString());
+                    current.setLength(0);
+                    inArg = false;
+                }
+            } else {
+                current.append(c);
+                inArg = true;
+            }
+        }
+        if (inArg) {
+            args.add(current.toString());
+        }
+        return args.toArray(new String[0]);
+    }
+}
@@ -1,17 +1,22 @@
 package src;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.time.LocalDate;
 import java.time.YearMonth;
 
 public class Budget {
-    private Map<String, Double> categoryBudgets;
+    // Amounts in cents indexed by Category registry id; budgeted marks which ids have an entry
+    private long[] categoryBudgets;
+    private BitSet budgeted;
     private YearMonth budgetMonth;
+    // Bumped on every change so cached reports can tell the budget moved on
+    private long version;
 
     public Budget(YearMonth month) {
         this.budgetMonth = month;
-        this.categoryBudgets = new HashMap<>();
+        this.categoryBudgets = new long[Category.size()];
+        this.budgeted = new BitSet();
     }
 
     public Budget() {
@@ -19,21 +24,59 @@ public class Budget {
     }
 
     public void setBudget(String category, double amount) {
-        if (amount >= 0) {
-            categoryBudgets.put(category, amount);
+        setBudgetCents(Category.intern(category), Money.fromDouble(amount));
+    }
+
+    public void setBudget(int categoryId, double amount) {
+        setBudgetCents(categoryId, Money.fromDouble(amount));
+    }
+
+    public void setBudgetCents(int categoryId, long cents) {
+        if (cents >= 0) {
+            if (categoryId >= categoryBudgets.length) {
+                categoryBudgets = Arrays.copyOf(categoryBudgets, Math.max(categoryId + 1, Category.size()));
+            }
+            categoryBudgets[categoryId] = cents;
+            budgeted.set(categoryId);
+            version++;
         }
     }
 
     public double getBudget(String category) {
-        return categoryBudgets.getOrDefault(category, 0.0);
+        return Money.toDouble(getBudgetCents(Category.lookup(category)));
+    }
+
+    public double getBudget(int categoryId) {
+        return Money.toDouble(getBudgetCents(categoryId));
     }
 
-    public Map<String, Double> getAllBudgets() {
-        return new HashMap<>(categoryBudgets);
+    public long getBudgetCents(String category) {
+        return getBudgetCents(Category.lookup(category));
+    }
+
+    public long getBudgetCents(int categoryId) {
+        return hasEntry(categoryId) ? categoryBudgets[categoryId] : 0;
+    }
+
+    // Budgeted category ids in ascending order
+    public int[] getBudgetedCategoryIds() {
+        return budgeted.stream().toArray();
+    }
+
+    public boolean isEmpty() {
+        return budgeted.isEmpty();
     }
 
     public double getTotalBudget() {
-        return categoryBudgets.values().stream().mapToDouble(Double::doubleValue).sum();
+        return Money.toDouble(getTotalBudgetCents());
+    }
+
+    public long getTotalBudgetCents() {
+        long total = 0;
+        for (int categoryId = budgeted.nextSetBit(0); categoryId >= 0; categoryId = budgeted.nextSetBit(categoryId + 1)) {
+            total += categoryBudgets[categoryId];
+        }
+        return total;
     }
 
     public YearMonth getBudgetMonth() {
@@ -42,51 +85,64 @@ public class Budget {
 
     public void setBudgetMonth(YearMonth month) {
         this.budgetMonth = month;
+        version++;
+    }
+
+    public long getVersion() {
+        return version;
     }
 
     public boolean hasBudget(String category) {
-        return categoryBudgets.containsKey(category) && categoryBudgets.get(category) > 0;
+        return hasBudget(Category.lookup(category));
+    }
+
+    public boolean hasBudget(int categoryId) {
+        return hasEntry(categoryId) && categoryBudgets[categoryId] > 0;
+    }
+
+    private boolean hasEntry(int categoryId) {
+        return categoryId >= 0 && budgeted.get(categoryId);
     }
 
-    public double getRemainingBudget(String category, double spent) {
-        double budget = getBudget(category);
-        return Math.max(0, budget - spent);
+    public long getRemainingBudgetCents(String category, long spentCents) {
+        return Math.max(0, getBudgetCents(category) - spentCents);
     }
 
-    public double getBudgetUsagePercentage(String category, double spent) {
-        double budget = getBudget(category);
-        if (budget == 0) return 0;
-        return Math.min(100, (spent / budget) * 100);
+    public double getBudgetUsagePercentage(String category, long spentCents) {
+        return Math.min(100, Money.percent(spentCents, getBudgetCents(category)));
     }
 
-    public boolean isOverBudget(String category, double spent) {
-        return spent > getBudget(category);
+    public boolean isOverBudget(String category, long spentCents) {
+        return spentCents > getBudgetCents(category);
     }
 
-    public boolean isNearBudgetLimit(String category, double spent, double threshold) {
-        double budget = getBudget(category);
+    // threshold is a fraction of the budget, e.g. 0.8 for 80%
+    public boolean isNearBudgetLimit(String category, long spentCents, double threshold) {
+        long budget = getBudgetCents(category);
         if (budget == 0) return false;
-        return (spent / budget) >= threshold;
+        return spentCents >= threshold * budget;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("Budget for ").append(budgetMonth).append(":\n");
-        for (Map.Entry<String, Double> entry : categoryBudgets.entrySet()) {
-            sb.append(String.format("  %s: $%.2f\n", entry.getKey(), entry.getValue()));
+        for (int categoryId = budgeted.nextSetBit(0); categoryId >= 0; categoryId = budgeted.nextSetBit(categoryId + 1)) {
+            sb.append("  ").append(Category.getName(categoryId)).append(": $");
+            Money.append(sb, categoryBudgets[categoryId]).append('\n');
         }
-        sb.append(String.format("Total Budget: $%.2f\n", getTotalBudget()));
+        sb.append("Total Budget: $");
+        Money.append(sb, getTotalBudgetCents()).append('\n');
         return sb.toString();
     }
 
     public String toCSVString() {
         StringBuilder sb = new StringBuilder();
-        for (Map.Entry<String, Double> entry : categoryBudgets.entrySet()) {
+        for (int categoryId = budgeted.nextSetBit(0); categoryId >= 0; categoryId = budgeted.nextSetBit(categoryId + 1)) {
             sb.append(budgetMonth).append(",")
-              .append(entry.getKey()).append(",")
-              .append(entry.getValue()).append("\n");
+              .append(Category.getName(categoryId)).append(",");
+            Money.append(sb, categoryBudgets[categoryId]).append("\n");
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package src;
+
+import java.time.YearMonth;
+
+public interface BudgetAlertListener {
+    // Called once each time a category's spending in a month rises to threshold percent of its budget
+    void thresholdCrossed(YearMonth month, int categoryId, int threshold, long spentCents, long budgetCents);
+}
@@ -0,0 +1,115 @@
+package src;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+// Watches every change to the store and reports when expense spending in a month rises past a
+// percentage of that month's budget. Spending before and after the change is read from the store's
+// running aggregates, so each change costs a lookup and a pass over the few thresholds, whether it
+// comes from the menu, an import or an edit. A threshold fires once per crossing; spending that
+// falls back below it, or a higher budget, arms it again.
+public class BudgetAlerts implements TransactionListener {
+    public static final String DEFAULT_THRESHOLDS = "50,80,100";
+
+    private final SpendingAggregates spending;
+    private final Supplier<BudgetHistory> budgets;
+    // Percentages of the budget, ascending
+    private final int[] thresholds;
+    private final List<BudgetAlertListener> listeners = new ArrayList<>();
+
+    public BudgetAlerts(TransactionStore store, Supplier<BudgetHistory> budgets, int... thresholds) {
+        this.budgets = budgets;
+        this.thresholds = thresholds.clone();
+        Arrays.sort(this.thresholds);
+        // The aggregates must be registered first so they already include a change when we see it
+        this.spending = store.getAggregates();
+        store.addListener(this);
+    }
+
+    // Thresholds from finance.alertThresholds, e.g. -Dfinance.alertThresholds=50,80,100
+    public static int[] configuredThresholds() {
+        String property = System.getProperty("finance.alertThresholds", DEFAULT_THRESHOLDS);
+        try {
+            return parseThresholds(property);
+        } catch (NumberFormatException e) {
+            System.err.println("Error reading finance.alertThresholds: " + e.getMessage());
+            return parseThresholds(DEFAULT_THRESHOLDS);
+        }
+    }
+
+    static int[] parseThresholds(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim().replace("%", ""));
+            if (result[i] <= 0) {
+                throw new NumberFormatException("threshold must be positive: " + parts[i].trim());
+            }
+        }
+        return result;
+    }
+
+    public void addListener(BudgetAlertListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(BudgetAlertListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int[] getThresholds() {
+        return thresholds.clone();
+    }
+
+    @Override
+    public void transactionAdded(TransactionStore store, int row) {
+        if (store.getType(row) != TransactionStore.EXPENSE) return;
+        int month = TransactionStore.epochMonth(store.getEpochDay(row));
+        int categoryId = store.getCategoryId(row);
+        long after = spending.getMonthCents(month, categoryId, TransactionStore.EXPENSE);
+        check(month, categoryId, after - store.getAmountCents(row), after);
+    }
+
+    @Override
+    public void transactionUpdated(TransactionStore store, int row, Transaction previous) {
+        if (store.getType(row) != TransactionStore.EXPENSE) return;
+        int month = TransactionStore.epochMonth(store.getEpochDay(row));
+        int categoryId = store.getCategoryId(row);
+        long after = spending.getMonthCents(month, categoryId, TransactionStore.EXPENSE);
+        long before = after - store.getAmountCents(row);
+        // An edit within the same month and category only moves spending by the difference
+        if (previous.getType().equals("EXPENSE")
+                && TransactionStore.epochMonth((int) previous.getDate().toEpochDay()) == month
+                && store.lookupCategory(previous.getCategory()) == categoryId) {
+            before += previous.getAmountCents();
+        }
+        check(month, categoryId, before, after);
+    }
+
+    @Override
+    public void transactionRemoved(TransactionStore store, int row) {
+        // Spending only falls
+    }
+
+    @Override
+    public void transactionsPrepended(TransactionStore store, int count) {
+        // Older months paged in from storage are not new spending
+    }
+
+    private void check(int month, int categoryId, long before, long after) {
+        if (after <= before || listeners.isEmpty()) return;
+        BudgetHistory history = budgets.get();
+        long budget = history != null ? history.getBudgetCents(month, categoryId) : 0;
+        if (budget <= 0) return;
+
+        for (int threshold : thresholds) {
+            long limit = budget * threshold;
+            if (before * 100 < limit && after * 100 >= limit) {
+                for (BudgetAlertListener listener : listeners) {
+                    listener.thresholdCrossed(TransactionStore.toYearMonth(month), categoryId,
+                                              threshold, after, budget);
+                }
+            }
+        }
+    }
+}
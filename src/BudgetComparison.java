@@ -0,0 +1,83 @@
+package src;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Budget against actual spending for each month of a year, in cents by category id
+public class BudgetComparison {
+    private final int year;
+    private long[][] budgetCents = new long[12][0];
+    private long[][] actualCents = new long[12][0];
+    private final BitSet[] budgeted = new BitSet[12];
+    private final BitSet categories = new BitSet();
+
+    BudgetComparison(int year) {
+        this.year = year;
+        for (int month = 0; month < 12; month++) {
+            budgeted[month] = new BitSet();
+        }
+    }
+
+    void add(int month, int categoryId, long budget, long actual) {
+        if (categoryId >= budgetCents[month].length) {
+            int length = Math.max(categoryId + 1, Category.size());
+            budgetCents[month] = Arrays.copyOf(budgetCents[month], length);
+            actualCents[month] = Arrays.copyOf(actualCents[month], length);
+        }
+        budgetCents[month][categoryId] = budget;
+        actualCents[month][categoryId] = actual;
+        budgeted[month].set(categoryId);
+        categories.set(categoryId);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    // Categories budgeted in at least one month, ascending
+    public int[] getCategoryIds() {
+        return categories.stream().toArray();
+    }
+
+    // month is 0 for January through 11 for December
+    public long getBudgetCents(int month, int categoryId) {
+        return categoryId < budgetCents[month].length ? budgetCents[month][categoryId] : 0;
+    }
+
+    public long getActualCents(int month, int categoryId) {
+        return categoryId < actualCents[month].length ? actualCents[month][categoryId] : 0;
+    }
+
+    public long getYearBudgetCents(int categoryId) {
+        long total = 0;
+        for (int month = 0; month < 12; month++) {
+            total += getBudgetCents(month, categoryId);
+        }
+        return total;
+    }
+
+    // Spending in the months the category had a budget
+    public long getYearActualCents(int categoryId) {
+        long total = 0;
+        for (int month = 0; month < 12; month++) {
+            if (isBudgeted(month, categoryId)) {
+                total += getActualCents(month, categoryId);
+            }
+        }
+        return total;
+    }
+
+    public int getMonthsOverBudget(int categoryId) {
+        int count = 0;
+        for (int month = 0; month < 12; month++) {
+            if (isBudgeted(month, categoryId) && getActualCents(month, categoryId) > getBudgetCents(month, categoryId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isBudgeted(int month, int categoryId) {
+        return budgeted[month].get(categoryId);
+    }
+}
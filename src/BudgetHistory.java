@@ -0,0 +1,137 @@
+package src;
+
+import java.time.YearMonth;
+import java.util.*;
+
+// Budgets for every month that has its own entries, keyed by epoch month. A month without
+// entries carries forward the most recent earlier month's budget.
+public class BudgetHistory {
+    // Months with their own budget, ascending, and each month's budget alongside
+    private int[] months = new int[0];
+    private Budget[] budgets = new Budget[0];
+    private int size;
+    private long structureVersion;
+
+    // The month's own budget, or null when it has none
+    public Budget getBudget(YearMonth month) {
+        int index = Arrays.binarySearch(months, 0, size, TransactionStore.epochMonth(month));
+        return index >= 0 ? budgets[index] : null;
+    }
+
+    // The budget in force for the month: its own, else the latest earlier one, else an empty one
+    public Budget getEffectiveBudget(YearMonth month) {
+        int index = floorIndex(TransactionStore.epochMonth(month));
+        return index >= 0 ? budgets[index] : new Budget(month);
+    }
+
+    // Amount in force for the category in the epoch month, 0 when it has no budget
+    public long getBudgetCents(int epochMonth, int categoryId) {
+        int index = floorIndex(epochMonth);
+        return index >= 0 ? budgets[index].getBudgetCents(categoryId) : 0;
+    }
+
+    // The month's own budget, created empty when missing; used when reading stored months
+    public Budget getOrCreate(YearMonth month) {
+        int epochMonth = TransactionStore.epochMonth(month);
+        int index = Arrays.binarySearch(months, 0, size, epochMonth);
+        if (index >= 0) return budgets[index];
+
+        Budget budget = new Budget(month);
+        insert(-index - 1, epochMonth, budget);
+        return budget;
+    }
+
+    // The month's own budget for changing, starting as a copy of the carried-forward one
+    public Budget edit(YearMonth month) {
+        int index = floorIndex(TransactionStore.epochMonth(month));
+        Budget carried = index >= 0 ? budgets[index] : null;
+        Budget budget = getOrCreate(month);
+        if (carried != null && carried != budget) {
+            for (int categoryId : carried.getBudgetedCategoryIds()) {
+                budget.setBudgetCents(categoryId, carried.getBudgetCents(categoryId));
+            }
+        }
+        return budget;
+    }
+
+    public void setBudgetCents(YearMonth month, int categoryId, long cents) {
+        edit(month).setBudgetCents(categoryId, cents);
+    }
+
+    // Months with their own budget, oldest first
+    public List<YearMonth> getMonths() {
+        List<YearMonth> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(TransactionStore.toYearMonth(months[i]));
+        }
+        return result;
+    }
+
+    public List<Budget> getBudgets() {
+        return Collections.unmodifiableList(Arrays.asList(budgets).subList(0, size));
+    }
+
+    public boolean isEmpty() {
+        for (int i = 0; i < size; i++) {
+            if (!budgets[i].isEmpty()) return false;
+        }
+        return true;
+    }
+
+    // Changes whenever any month's budget changes, for cache keys
+    public long getVersion() {
+        long version = structureVersion;
+        for (int i = 0; i < size; i++) {
+            version += budgets[i].getVersion();
+        }
+        return version;
+    }
+
+    // Budget and actual spending per month and category for the year, from the running
+    // aggregates; carried-forward budgets are resolved while walking the months
+    public BudgetComparison compareYear(int year, SpendingAggregates aggregates) {
+        int firstMonth = TransactionStore.epochMonth(YearMonth.of(year, 1));
+        BudgetComparison comparison = new BudgetComparison(year);
+        int index = floorIndex(firstMonth);
+        for (int month = 0; month < 12; month++) {
+            while (index + 1 < size && months[index + 1] <= firstMonth + month) {
+                index++;
+            }
+            if (index < 0) continue;
+
+            Budget budget = budgets[index];
+            for (int categoryId : budget.getBudgetedCategoryIds()) {
+                comparison.add(month, categoryId, budget.getBudgetCents(categoryId),
+                               aggregates.getMonthCents(firstMonth + month, categoryId, TransactionStore.EXPENSE));
+            }
+        }
+        return comparison;
+    }
+
+    public String toCSVString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append(budgets[i].toCSVString());
+        }
+        return sb.toString();
+    }
+
+    // Index of the latest month at or before the given one, -1 if none
+    private int floorIndex(int epochMonth) {
+        int index = Arrays.binarySearch(months, 0, size, epochMonth);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private void insert(int position, int epochMonth, Budget budget) {
+        if (size == months.length) {
+            months = Arrays.copyOf(months, Math.max(4, size * 2));
+            budgets = Arrays.copyOf(budgets, months.length);
+        }
+        System.arraycopy(months, position, months, position + 1, size - position);
+        System.arraycopy(budgets, position, budgets, position + 1, size - position);
+        months[position] = epochMonth;
+        budgets[position] = budget;
+        size++;
+        structureVersion++;
+    }
+}
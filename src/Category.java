@@ -1,14 +1,13 @@
 package src;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Category {
     // Predefined expense categories
     public static final List<String> EXPENSE_CATEGORIES = Arrays.asList(
         "Food & Dining",
-        "Transportation", 
+        "Transportation",
         "Shopping",
         "Entertainment",
         "Bills & Utilities",
@@ -29,38 +28,97 @@ public class Category {
         "Other Income"
     );
 
-    private static List<String> customCategories = new ArrayList<>();
+    // Kinds of registered names; OTHER covers names only seen in stored data
+    private static final byte EXPENSE = 1;
+    private static final byte INCOME = 2;
+    private static final byte CUSTOM = 3;
+    private static final byte OTHER = 0;
+
+    // Registry: dense id -> name and kind, name -> id. Names are published to the map
+    // only after their slots are filled, so lookups never see a half-registered id
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[32];
+    private static volatile byte[] kinds = new byte[32];
+    private static volatile int count;
+
+    private static final List<String> expenseCategories = new ArrayList<>(EXPENSE_CATEGORIES);
+    private static final List<String> customCategories = new ArrayList<>();
+
+    static {
+        for (String category : EXPENSE_CATEGORIES) register(category, EXPENSE);
+        for (String category : INCOME_CATEGORIES) register(category, INCOME);
+    }
 
     public static List<String> getExpenseCategories() {
-        List<String> allCategories = new ArrayList<>(EXPENSE_CATEGORIES);
-        allCategories.addAll(customCategories);
-        return allCategories;
+        return Collections.unmodifiableList(expenseCategories);
     }
 
     public static List<String> getIncomeCategories() {
-        return new ArrayList<>(INCOME_CATEGORIES);
+        return INCOME_CATEGORIES;
     }
 
-    public static void addCustomCategory(String category) {
-        if (!customCategories.contains(category) && 
-            !EXPENSE_CATEGORIES.contains(category) && 
-            !INCOME_CATEGORIES.contains(category)) {
+    public static List<String> getCustomCategories() {
+        return Collections.unmodifiableList(customCategories);
+    }
+
+    public static synchronized void addCustomCategory(String category) {
+        int id = intern(category);
+        if (kinds[id] == OTHER) {
+            kinds[id] = CUSTOM;
+            expenseCategories.add(category);
             customCategories.add(category);
         }
     }
 
     public static boolean isValidCategory(String category, String type) {
+        int id = lookup(category);
+        if (id < 0) return false;
         if (type.equalsIgnoreCase("EXPENSE")) {
-            return getExpenseCategories().contains(category);
+            return kinds[id] == EXPENSE || kinds[id] == CUSTOM;
         } else if (type.equalsIgnoreCase("INCOME")) {
-            return getIncomeCategories().contains(category);
+            return kinds[id] == INCOME;
         }
         return false;
     }
 
+    // Id registry shared by transactions and budgets
+    public static int intern(String category) {
+        Integer id = ids.get(category);
+        return id != null ? id : register(category, OTHER);
+    }
+
+    public static int lookup(String category) {
+        Integer id = ids.get(category);
+        return id != null ? id : -1;
+    }
+
+    public static String getName(int id) {
+        return names[id];
+    }
+
+    public static int size() {
+        return count;
+    }
+
+    private static synchronized int register(String category, byte kind) {
+        Integer existing = ids.get(category);
+        if (existing != null) return existing;
+
+        int id = count;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+            kinds = Arrays.copyOf(kinds, id * 2);
+        }
+        names[id] = category;
+        kinds[id] = kind;
+        count = id + 1;
+        ids.put(category, id);
+        return id;
+    }
+
     public static void displayCategories(String type) {
         System.out.println("\n=== Available Categories ===");
-        List<String> categories = type.equalsIgnoreCase("EXPENSE") ? 
+        List<String> categories = type.equalsIgnoreCase("EXPENSE") ?
                                 getExpenseCategories() : getIncomeCategories();
 
         for (int i = 0; i < categories.size(); i++) {
@@ -69,7 +127,7 @@ public class Category {
     }
 
     public static String getCategoryByIndex(String type, int index) {
-        List<String> categories = type.equalsIgnoreCase("EXPENSE") ? 
+        List<String> categories = type.equalsIgnoreCase("EXPENSE") ?
                                 getExpenseCategories() : getIncomeCategories();
 
         if (index >= 1 && index <= categories.size()) {
@@ -77,4 +135,4 @@ public class Category {
         }
         return null;
     }
-}
\ No newline at end of file
+}
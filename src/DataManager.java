@@ -1,32 +1,103 @@
 package src;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class DataManager {
-    private static final String DATA_DIR = "data/";
-    private static final String TRANSACTIONS_FILE = DATA_DIR + "transactions.csv";
-    private static final String BUDGETS_FILE = DATA_DIR + "budgets.csv";
-    private static final String GOALS_FILE = DATA_DIR + "goals.csv";
+    private static final String DEFAULT_DATA_DIR = "data/";
+
+    // Journal entries allowed to accumulate before they are folded into the base file
+    private static final long JOURNAL_COMPACTION_THRESHOLD = 10000;
+
+    private final String dataDir;
+    private final String transactionsFile;
+    private final String budgetsFile;
+    private final String goalsFile;
+    private final String categoriesFile;
+    private final String journalFile;
+    private final String snapshotFile;
+    private final String partitionsFile;
+
+    private final boolean journaled;
+    private final boolean parallelLoad;
+    private final boolean lazyLoad;
+    private final TransactionJournal journal;
+    private final BackupStore backupStore;
+    private TransactionStore journaledStore;
+
+    // A store holding only the file suffix from loadedFrom; older rows are paged in on demand
+    private TransactionStore pagedStore;
+    private TransactionPartitions pagedPartitions;
+    private long loadedFrom;
+    private int loadedFromMonth;
+    private boolean pagedStoreChanged;
+    private final TransactionListener changeTracker = new TransactionListener() {
+        @Override
+        public void transactionAdded(TransactionStore store, int row) { pagedStoreChanged = true; }
+        @Override
+        public void transactionUpdated(TransactionStore store, int row, Transaction previous) { pagedStoreChanged = true; }
+        @Override
+        public void transactionRemoved(TransactionStore store, int row) { pagedStoreChanged = true; }
+        @Override
+        public void transactionsPrepended(TransactionStore store, int count) { }
+    };
 
     public DataManager() {
+        this(DEFAULT_DATA_DIR);
+    }
+
+    public DataManager(String dataDir) {
+        this(dataDir, Boolean.getBoolean("finance.journal"), Boolean.getBoolean("finance.parallelLoad"),
+             Boolean.getBoolean("finance.lazyLoad"));
+    }
+
+    public DataManager(String dataDir, boolean journaled, boolean parallelLoad) {
+        this(dataDir, journaled, parallelLoad, false);
+    }
+
+    public DataManager(String dataDir, boolean journaled, boolean parallelLoad, boolean lazyLoad) {
+        this.dataDir = dataDir.endsWith("/") ? dataDir : dataDir + "/";
+        this.transactionsFile = this.dataDir + "transactions.csv";
+        this.budgetsFile = this.dataDir + "budgets.csv";
+        this.goalsFile = this.dataDir + "goals.csv";
+        this.categoriesFile = this.dataDir + "categories.csv";
+        this.journalFile = this.dataDir + "transactions.journal";
+        this.snapshotFile = this.dataDir + "ledger.snapshot";
+        this.partitionsFile = this.dataDir + "transactions.partitions";
+        this.journaled = journaled;
+        this.parallelLoad = parallelLoad;
+        this.lazyLoad = lazyLoad;
+        this.journal = new TransactionJournal(new File(journalFile));
+        this.backupStore = new BackupStore(Paths.get(this.dataDir + "backups"));
         createDataDirectory();
     }
 
     private void createDataDirectory() {
-        File dir = new File(DATA_DIR);
+        File dir = new File(dataDir);
         if (!dir.exists()) {
             dir.mkdirs();
         }
     }
 
     // Transaction data management
-    public void saveTransactions(List<Transaction> transactions) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(TRANSACTIONS_FILE))) {
-            writer.println("ID,Type,Amount,Category,Description,Date");
-            for (Transaction transaction : transactions) {
-                writer.println(transaction.toCSVString());
+    public void saveTransactions(TransactionStore transactions) {
+        try {
+            if (transactions == pagedStore && !pagedStoreChanged) {
+                System.out.println("No transaction changes to save.");
+                return;
+            }
+            if (journaled && transactions == journaledStore && new File(transactionsFile).exists()) {
+                journal.flush();
+                if (journal.getJournalEntries() >= JOURNAL_COMPACTION_THRESHOLD) {
+                    compactJournal(transactions);
+                }
+            } else {
+                writeTransactionsFile(transactions);
+                journal.reset();
             }
             System.out.println("Transactions saved successfully.");
         } catch (IOException e) {
@@ -34,57 +105,216 @@ public class DataManager {
         }
     }
 
-    public List<Transaction> loadTransactions() {
-        List<Transaction> transactions = new ArrayList<>();
-        File file = new File(TRANSACTIONS_FILE);
+    // Folds the journal into a fresh base file and starts a new, empty log
+    public void compactJournal(TransactionStore transactions) throws IOException {
+        journal.flush();
+        ensureFullyLoaded(transactions);
+        writeTransactionsFile(transactions);
+        journal.reset();
+    }
 
-        if (!file.exists()) {
-            return transactions;
+    private void writeTransactionsFile(TransactionStore transactions) throws IOException {
+        ensureFullyLoaded(transactions);
+        if (transactions == pagedStore) {
+            throw new IOException("older transactions could not be loaded, so the file was left unchanged");
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean firstLine = true;
+        File target = new File(transactionsFile);
+        File temp = new File(transactionsFile + ".tmp");
 
-            while ((line = reader.readLine()) != null) {
-                if (firstLine) {
-                    firstLine = false; // Skip header
-                    continue;
-                }
+        TransactionPartitions partitions = lazyLoad ? new TransactionPartitions() : null;
+        new TransactionExporter(transactions).export(temp.toPath(), TransactionFilter.all(), false, partitions);
+        Files.move(temp.toPath(), target.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (partitions != null) {
+            savePartitions(partitions);
+        }
+    }
 
-                Transaction transaction = Transaction.fromCSVString(line);
-                if (transaction != null) {
-                    transactions.add(transaction);
+    private void savePartitions(TransactionPartitions partitions) {
+        try {
+            partitions.write(new File(partitionsFile), new File(transactionsFile));
+        } catch (IOException e) {
+            System.err.println("Error saving transaction partition index: " + e.getMessage());
+        }
+    }
+
+    public TransactionStore loadTransactions() {
+        TransactionStore transactions = new TransactionStore();
+        File file = new File(transactionsFile);
+
+        if (file.exists()) {
+            try {
+                MappedTransactionLoader loader = new MappedTransactionLoader(transactions);
+                TransactionPartitions partitions = lazyLoad ? new TransactionPartitions() : null;
+                loader.recordPartitions(partitions);
+                loader.load(file.toPath(), parallelLoad ? ForkJoinPool.commonPool() : null);
+                if (loader.getSkippedRows() > 0) {
+                    System.err.println("Skipped " + loader.getSkippedRows() + " malformed transaction rows.");
+                }
+                if (partitions != null) {
+                    savePartitions(partitions);
                 }
+            } catch (IOException e) {
+                System.err.println("Error loading transactions: " + e.getMessage());
             }
+        }
 
-            if (!transactions.isEmpty()) {
-                System.out.println("Loaded " + transactions.size() + " transactions.");
+        try {
+            journal.replay(transactions);
+            if (journal.getSkippedEntries() > 0) {
+                System.err.println("Skipped " + journal.getSkippedEntries() + " malformed journal entries.");
             }
         } catch (IOException e) {
-            System.err.println("Error loading transactions: " + e.getMessage());
+            System.err.println("Error replaying transaction journal: " + e.getMessage());
+        }
+
+        attachJournal(transactions);
+
+        if (!transactions.isEmpty()) {
+            System.out.println("Loaded " + transactions.size() + " transactions.");
+        }
+
+        return transactions;
+    }
+
+    // Reads only the rows from the given month on, using the partition index; the whole file is
+    // read instead (and the index rebuilt) when the index is stale or journal entries must replay
+    public TransactionStore loadRecentTransactions(YearMonth from) {
+        File file = new File(transactionsFile);
+        File journalLog = new File(journalFile);
+        TransactionPartitions partitions = TransactionPartitions.read(new File(partitionsFile), file);
+        if (!lazyLoad || partitions == null || journalLog.length() > 0) {
+            return loadTransactions();
         }
 
+        TransactionStore transactions = new TransactionStore();
+        long start = partitions.startOf(TransactionStore.epochMonth(from), file.length());
+        try {
+            MappedTransactionLoader loader = new MappedTransactionLoader(transactions);
+            loader.load(file.toPath(), start, Long.MAX_VALUE, parallelLoad ? ForkJoinPool.commonPool() : null);
+        } catch (IOException e) {
+            System.err.println("Error loading transactions: " + e.getMessage());
+            return loadTransactions();
+        }
+        // Ids still on disk must not be handed out again
+        Transaction.reserveId(partitions.getMaxId());
+
+        pagedStore = transactions;
+        pagedPartitions = partitions;
+        loadedFrom = start;
+        loadedFromMonth = TransactionStore.epochMonth(from);
+        pagedStoreChanged = false;
+        transactions.addListener(changeTracker);
+        attachJournal(transactions);
+
+        System.out.println("Loaded " + transactions.size() + " transactions since " + from
+                           + "; older months are loaded when needed.");
         return transactions;
     }
 
-    // Budget data management
-    public void saveBudget(Budget budget) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(BUDGETS_FILE))) {
+    // Pages in every month from the given one if the store was loaded partially
+    public void ensureLoaded(TransactionStore transactions, YearMonth month) {
+        pageIn(transactions, TransactionStore.epochMonth(month));
+    }
+
+    public void ensureFullyLoaded(TransactionStore transactions) {
+        pageIn(transactions, Integer.MIN_VALUE);
+    }
+
+    private void pageIn(TransactionStore transactions, int epochMonth) {
+        if (transactions != pagedStore || epochMonth >= loadedFromMonth) return;
+
+        File file = new File(transactionsFile);
+        long start = epochMonth == Integer.MIN_VALUE ? 0 : pagedPartitions.startOf(epochMonth, loadedFrom);
+        if (start < loadedFrom) {
+            TransactionStore older = new TransactionStore();
+            try {
+                if (TransactionPartitions.read(new File(partitionsFile), file) == null) {
+                    throw new IOException(file + " changed since it was loaded");
+                }
+                new MappedTransactionLoader(older)
+                    .load(file.toPath(), start, loadedFrom, parallelLoad ? ForkJoinPool.commonPool() : null);
+            } catch (IOException e) {
+                System.err.println("Error loading older transactions: " + e.getMessage());
+                return;
+            }
+            transactions.prependAll(older);
+            loadedFrom = start;
+        }
+        loadedFromMonth = epochMonth;
+
+        if (epochMonth == Integer.MIN_VALUE) {
+            transactions.removeListener(changeTracker);
+            pagedStore = null;
+            pagedPartitions = null;
+        }
+    }
+
+    private void attachJournal(TransactionStore transactions) {
+        if (journaled) {
+            transactions.addListener(journal);
+            journaledStore = transactions;
+        }
+    }
+
+    // Binary snapshot of the whole ledger, written after the CSV files and preferred on load
+    public void saveSnapshot(TransactionStore transactions, BudgetHistory budgets, List<SavingsGoal> goals) {
+        // A partially loaded ledger cannot be imaged; any existing snapshot is still current
+        if (transactions == pagedStore) return;
+        try {
+            newSnapshot().write(transactions, budgets, goals);
+        } catch (IOException e) {
+            System.err.println("Error saving snapshot: " + e.getMessage());
+        }
+    }
+
+    // Returns null when the snapshot is missing or stale, in which case the CSV files are read
+    public LedgerSnapshot loadSnapshot() {
+        LedgerSnapshot snapshot = newSnapshot();
+        try {
+            if (!snapshot.read()) {
+                return null;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading snapshot: " + e.getMessage());
+            return null;
+        }
+
+        try {
+            journal.countEntries();
+        } catch (IOException e) {
+            System.err.println("Error reading transaction journal: " + e.getMessage());
+        }
+        attachJournal(snapshot.getTransactions());
+        if (!snapshot.getTransactions().isEmpty()) {
+            System.out.println("Loaded " + snapshot.getTransactions().size() + " transactions from snapshot.");
+        }
+        return snapshot;
+    }
+
+    private LedgerSnapshot newSnapshot() {
+        return new LedgerSnapshot(new File(snapshotFile), new File(transactionsFile),
+                                  new File(journalFile), new File(budgetsFile), new File(goalsFile));
+    }
+
+    // Budget data management; one row per month and category for every month with its own budget
+    public void saveBudget(BudgetHistory budgets) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(budgetsFile))) {
             writer.println("Month,Category,Amount");
-            writer.print(budget.toCSVString());
+            writer.print(budgets.toCSVString());
             System.out.println("Budget saved successfully.");
         } catch (IOException e) {
             System.err.println("Error saving budget: " + e.getMessage());
         }
     }
 
-    public Budget loadBudget() {
-        Budget budget = new Budget();
-        File file = new File(BUDGETS_FILE);
+    public BudgetHistory loadBudget() {
+        BudgetHistory budgets = new BudgetHistory();
+        File file = new File(budgetsFile);
 
         if (!file.exists()) {
-            return budget;
+            return budgets;
         }
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
@@ -101,26 +331,25 @@ public class DataManager {
                 if (parts.length >= 3) {
                     YearMonth month = YearMonth.parse(parts[0]);
                     String category = parts[1];
-                    double amount = Double.parseDouble(parts[2]);
+                    long cents = Money.parse(parts[2]);
 
-                    budget.setBudgetMonth(month);
-                    budget.setBudget(category, amount);
+                    budgets.getOrCreate(month).setBudgetCents(Category.intern(category), cents);
                 }
             }
 
-            if (!budget.getAllBudgets().isEmpty()) {
+            if (!budgets.isEmpty()) {
                 System.out.println("Budget loaded successfully.");
             }
         } catch (IOException e) {
             System.err.println("❌ Error loading budget: " + e.getMessage());
         }
 
-        return budget;
+        return budgets;
     }
 
     // Savings goals data management
     public void saveSavingsGoals(List<SavingsGoal> goals) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(GOALS_FILE))) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(goalsFile))) {
             writer.println("ID,Name,TargetAmount,CurrentAmount,StartDate,TargetDate,Description");
             for (SavingsGoal goal : goals) {
                 writer.println(goal.toCSVString());
@@ -133,7 +362,7 @@ public class DataManager {
 
     public List<SavingsGoal> loadSavingsGoals() {
         List<SavingsGoal> goals = new ArrayList<>();
-        File file = new File(GOALS_FILE);
+        File file = new File(goalsFile);
 
         if (!file.exists()) {
             return goals;
@@ -165,61 +394,80 @@ public class DataManager {
         return goals;
     }
 
-    // Export functionality
-    public void exportTransactionsToCSV(List<Transaction> transactions, String filename) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(DATA_DIR + filename))) {
-            writer.println("ID,Type,Amount,Category,Description,Date");
-            for (Transaction transaction : transactions) {
-                writer.println(transaction.toCSVString());
+    // Custom category management
+    public void saveCustomCategories() {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(categoriesFile), StandardCharsets.UTF_8))) {
+            writer.println("Name");
+            for (String category : Category.getCustomCategories()) {
+                writer.println(category);
             }
-            System.out.println("Transactions exported to " + filename);
         } catch (IOException e) {
-            System.err.println("Error exporting transactions: " + e.getMessage());
+            System.err.println("Error saving custom categories: " + e.getMessage());
         }
     }
 
-    // Backup functionality
-    public void createBackup() {
-        String timestamp = java.time.LocalDateTime.now()
-                          .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String backupDir = DATA_DIR + "backup_" + timestamp + "/";
-
-        File dir = new File(backupDir);
-        if (!dir.exists()) {
-            dir.mkdirs();
+    public void loadCustomCategories() {
+        File file = new File(categoriesFile);
+        if (!file.exists()) {
+            return;
         }
 
-        try {
-            copyFile(TRANSACTIONS_FILE, backupDir + "transactions.csv");
-            copyFile(BUDGETS_FILE, backupDir + "budgets.csv");
-            copyFile(GOALS_FILE, backupDir + "goals.csv");
-            System.out.println("Backup created: " + backupDir);
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            boolean firstLine = true;
+
+            while ((line = reader.readLine()) != null) {
+                if (firstLine) {
+                    firstLine = false; // Skip header
+                    continue;
+                }
+
+                String category = line.trim();
+                if (!category.isEmpty()) {
+                    Category.addCustomCategory(category);
+                }
+            }
         } catch (IOException e) {
-            System.err.println("Error creating backup: " + e.getMessage());
+            System.err.println("Error loading custom categories: " + e.getMessage());
         }
     }
 
-    private void copyFile(String source, String destination) throws IOException {
-        File sourceFile = new File(source);
-        if (!sourceFile.exists()) return;
+    // Export functionality
+    public void exportTransactionsToCSV(TransactionStore transactions, String filename) {
+        exportTransactions(transactions, TransactionFilter.all(), filename, false);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(sourceFile));
-             PrintWriter writer = new PrintWriter(new FileWriter(destination))) {
+    public void exportTransactions(TransactionStore transactions, TransactionFilter filter,
+                                   String filename, boolean gzip) {
+        try {
+            int written = new TransactionExporter(transactions)
+                .export(Paths.get(dataDir + filename), filter, gzip);
+            System.out.println(written + " transactions exported to " + filename);
+        } catch (IOException e) {
+            System.err.println("Error exporting transactions: " + e.getMessage());
+        }
+    }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                writer.println(line);
-            }
+    // Backup functionality
+    public void createBackup() {
+        try {
+            List<Path> sources = Arrays.asList(Paths.get(transactionsFile), Paths.get(journalFile),
+                                               Paths.get(budgetsFile), Paths.get(goalsFile),
+                                               Paths.get(categoriesFile));
+            Path backupDir = backupStore.backup(sources);
+            System.out.println("Backup created: " + backupDir);
+        } catch (IOException e) {
+            System.err.println("Error creating backup: " + e.getMessage());
         }
     }
 
     public boolean hasExistingData() {
-        File transFile = new File(TRANSACTIONS_FILE);
-        File budgetFile = new File(BUDGETS_FILE);
-        File goalsFile = new File(GOALS_FILE);
+        File transFile = new File(transactionsFile);
+        File budgetFile = new File(budgetsFile);
+        File goalFile = new File(goalsFile);
 
         return (transFile.exists() && transFile.length() > 0) ||
                (budgetFile.exists() && budgetFile.length() > 0) ||
-               (goalsFile.exists() && goalsFile.length() > 0);
+               (goalFile.exists() && goalFile.length() > 0);
     }
 }
\ No newline at end of file
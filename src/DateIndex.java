@@ -0,0 +1,289 @@
+package src;
+
+import java.util.Arrays;
+
+public class DateIndex implements TransactionListener {
+    // Rows ordered by (epoch day, row), with their days alongside for binary search
+    private int[] rows = new int[0];
+    private int[] days = new int[0];
+    private int size;
+    // Back-dated rows added since the last query as (day, row) keys, merged in as one sorted run;
+    // the day is kept because an edit may already have changed it in the store
+    private long[] added = new long[0];
+    private int addedCount;
+    // Rows removed since the last query, in the descending order the store reports them
+    private int[] removedRows = new int[0];
+    private int removedCount;
+    // Set before the first query, when the whole store is sorted once
+    private boolean stale = true;
+    // Set while a snapshot's index shares the arrays; the next change inside them copies them first
+    private boolean shared;
+    // Cleared by every change that leaves work for the next query. Readers may settle the index
+    // concurrently; the arrays are complete before it is set.
+    private volatile boolean settled;
+    private final TransactionStore store;
+
+    public DateIndex(TransactionStore store) {
+        this.store = store;
+    }
+
+    private DateIndex(TransactionStore store, int[] rows, int[] days, int size) {
+        this.store = store;
+        this.rows = rows;
+        this.days = days;
+        this.size = size;
+        this.stale = false;
+        this.settled = true;
+    }
+
+    // Index for a snapshot of the store, sharing the sorted arrays as they are now. Entries
+    // appended later land past its size; anything else copies the arrays before writing.
+    synchronized DateIndex snapshot(TransactionStore snapshot) {
+        if (!settled) settle();
+        shared = true;
+        return new DateIndex(snapshot, rows, days, size);
+    }
+
+    // Rows dated within [fromEpochDay, toEpochDay], oldest first
+    public int[] rowsBetween(int fromEpochDay, int toEpochDay) {
+        ensureSorted();
+        int from = lowerBound(fromEpochDay);
+        int to = toEpochDay == Integer.MAX_VALUE ? size : lowerBound(toEpochDay + 1);
+        return from < to ? Arrays.copyOfRange(rows, from, to) : new int[0];
+    }
+
+    // Positional access for callers that walk a range without copying it
+    public int size() {
+        ensureSorted();
+        return size;
+    }
+
+    public int positionOf(int epochDay) {
+        ensureSorted();
+        return epochDay == Integer.MAX_VALUE ? size : lowerBound(epochDay);
+    }
+
+    public int rowAt(int position) {
+        return rows[position];
+    }
+
+    public int dayAt(int position) {
+        return days[position];
+    }
+
+    // Listener hooks. Rows dated at or after the newest entry are appended directly; other
+    // additions and removals are buffered and folded in by a single pass on the next query, so
+    // imports, journal replay and bulk deletes cost O(n) in total rather than per row. A date
+    // edit moves its one entry.
+    @Override
+    public void transactionAdded(TransactionStore store, int row) {
+        if (stale) return;
+        applyRemovals();
+        int day = store.getEpochDay(row);
+        if (size == 0 || day >= days[size - 1]) {
+            // New rows have the highest row number, so they go after every entry for the same day
+            ensureCapacity(size + 1);
+            rows[size] = row;
+            days[size] = day;
+            size++;
+        } else {
+            if (addedCount == added.length) {
+                added = Arrays.copyOf(added, Math.max(16, addedCount * 2));
+            }
+            added[addedCount++] = key(day, row);
+            settled = false;
+        }
+    }
+
+    @Override
+    public void transactionUpdated(TransactionStore store, int row, Transaction previous) {
+        if (stale) return;
+        int oldDay = (int) previous.getDate().toEpochDay();
+        int newDay = store.getEpochDay(row);
+        if (oldDay == newDay) return;
+
+        settle();
+        unshare();
+        int from = lowerBound(oldDay, row);
+        int to = lowerBound(newDay, row);
+        // Shift the entries between the old and new places by one and drop the row in
+        if (to > from) {
+            to--;
+            System.arraycopy(rows, from + 1, rows, from, to - from);
+            System.arraycopy(days, from + 1, days, from, to - from);
+        } else {
+            System.arraycopy(rows, to, rows, to + 1, from - to);
+            System.arraycopy(days, to, days, to + 1, from - to);
+        }
+        rows[to] = row;
+        days[to] = newDay;
+    }
+
+    @Override
+    public void transactionRemoved(TransactionStore store, int row) {
+        if (stale) return;
+        mergeAdded();
+        // A batch holds rows in descending order, so each still carries the number it had before
+        // the batch; a removal out of that order starts a new batch
+        if (removedCount > 0 && row >= removedRows[removedCount - 1]) {
+            applyRemovals();
+        }
+        if (removedCount == removedRows.length) {
+            removedRows = Arrays.copyOf(removedRows, Math.max(16, removedCount * 2));
+        }
+        removedRows[removedCount++] = row;
+        settled = false;
+    }
+
+    // Existing rows move up by count and the paged-in rows join as one sorted run
+    @Override
+    public void transactionsPrepended(TransactionStore store, int count) {
+        if (stale) return;
+        settle();
+        unshare();
+        for (int i = 0; i < size; i++) {
+            rows[i] += count;
+        }
+        if (added.length < count) {
+            added = new long[count];
+        }
+        for (int row = 0; row < count; row++) {
+            added[row] = key(store.getEpochDay(row), row);
+        }
+        addedCount = count;
+        settled = false;
+    }
+
+    private void ensureSorted() {
+        if (settled) return;
+        synchronized (this) {
+            if (!settled) settle();
+        }
+    }
+
+    private void settle() {
+        if (stale) {
+            sort();
+        } else {
+            mergeAdded();
+            applyRemovals();
+        }
+        settled = true;
+    }
+
+    private void sort() {
+        int count = store.size();
+        long[] keys = new long[count];
+        for (int row = 0; row < count; row++) {
+            keys[row] = key(store.getEpochDay(row), row);
+        }
+        Arrays.sort(keys);
+
+        rows = new int[count];
+        days = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = (int) keys[i];
+            days[i] = (int) (keys[i] >> 32);
+        }
+        size = count;
+        addedCount = 0;
+        removedCount = 0;
+        stale = false;
+        shared = false;
+    }
+
+    // Sorts the buffered rows and merges them in from the back, in place
+    private void mergeAdded() {
+        if (addedCount == 0) return;
+        Arrays.sort(added, 0, addedCount);
+
+        unshare();
+        ensureCapacity(size + addedCount);
+        int i = size - 1;
+        int j = addedCount - 1;
+        for (int target = size + addedCount - 1; j >= 0; target--) {
+            if (i >= 0 && (days[i] > (int) (added[j] >> 32)
+                    || days[i] == (int) (added[j] >> 32) && rows[i] > (int) added[j])) {
+                rows[target] = rows[i];
+                days[target] = days[i];
+                i--;
+            } else {
+                rows[target] = (int) added[j];
+                days[target] = (int) (added[j] >> 32);
+                j--;
+            }
+        }
+        size += addedCount;
+        addedCount = 0;
+    }
+
+    // Drops the removed rows and renumbers the rest to match the compacted store
+    private void applyRemovals() {
+        if (removedCount == 0) return;
+        unshare();
+        int[] removed = Arrays.copyOf(removedRows, removedCount);
+        Arrays.sort(removed);
+
+        int target = 0;
+        for (int i = 0; i < size; i++) {
+            int index = Arrays.binarySearch(removed, rows[i]);
+            if (index >= 0) continue;
+            rows[target] = rows[i] + index + 1;
+            days[target] = days[i];
+            target++;
+        }
+        size = target;
+        removedCount = 0;
+    }
+
+    private static long key(int epochDay, int row) {
+        return ((long) epochDay << 32) | row;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > rows.length) {
+            int length = Math.max(16, Math.max(capacity, rows.length * 2));
+            rows = Arrays.copyOf(rows, length);
+            days = Arrays.copyOf(days, length);
+            shared = false;
+        }
+    }
+
+    private void unshare() {
+        if (shared) {
+            rows = rows.clone();
+            days = days.clone();
+            shared = false;
+        }
+    }
+
+    // First position whose day is >= the given day
+    private int lowerBound(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First position at or after (epochDay, row) in (day, row) order
+    private int lowerBound(int epochDay, int row) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < epochDay || days[mid] == epochDay && rows[mid] < row) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,204 @@
+package src;
+
+import java.util.*;
+
+// Inverted index from description words to sorted posting lists of transaction ids.
+// Ids rather than rows are stored so deletes do not renumber every posting.
+public class DescriptionIndex implements TransactionListener {
+    private static final int INITIAL_POSTINGS = 4;
+
+    private final HashMap<String, Postings> tokens = new HashMap<>();
+    // Sorted vocabulary for prefix lookups, rebuilt on the next search after a word comes or goes
+    private volatile String[] vocabulary;
+
+    public DescriptionIndex(TransactionStore store) {
+        for (int row = 0; row < store.size(); row++) {
+            add(store.getId(row), store.getDescription(row));
+        }
+    }
+
+    // Ids of transactions whose description has a word starting with every query term
+    public int[] search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) return new int[0];
+
+        int[][] matches = new int[terms.size()][];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = prefixMatches(terms.get(i));
+            if (matches[i].length == 0) return matches[i];
+        }
+
+        // Intersect starting from the rarest term so the working set only shrinks
+        Arrays.sort(matches, Comparator.comparingInt(ids -> ids.length));
+        int[] result = matches[0];
+        for (int i = 1; i < matches.length && result.length > 0; i++) {
+            result = intersect(result, matches[i]);
+        }
+        return result;
+    }
+
+    // Rows for the matching ids, in row order
+    public int[] searchRows(TransactionStore store, String query) {
+        return store.findRows(search(query));
+    }
+
+    // Number of distinct words indexed
+    public int size() {
+        return tokens.size();
+    }
+
+    public void add(int id, String description) {
+        for (String token : tokenize(description)) {
+            Postings postings = tokens.get(token);
+            if (postings == null) {
+                postings = new Postings();
+                tokens.put(token, postings);
+                vocabulary = null;
+            }
+            postings.insert(id);
+        }
+    }
+
+    public void remove(int id, String description) {
+        for (String token : tokenize(description)) {
+            Postings postings = tokens.get(token);
+            if (postings != null && postings.delete(id) && postings.size == 0) {
+                tokens.remove(token);
+                vocabulary = null;
+            }
+        }
+    }
+
+    // Lowercased runs of letters and digits; everything else separates words
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) return words;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Listener hooks keep the postings in step with the store
+    @Override
+    public void transactionAdded(TransactionStore store, int row) {
+        add(store.getId(row), store.getDescription(row));
+    }
+
+    @Override
+    public void transactionUpdated(TransactionStore store, int row, Transaction previous) {
+        if (previous.getId() == store.getId(row)
+                && Objects.equals(previous.getDescription(), store.getDescription(row))) {
+            return;
+        }
+        remove(previous.getId(), previous.getDescription());
+        add(store.getId(row), store.getDescription(row));
+    }
+
+    @Override
+    public void transactionRemoved(TransactionStore store, int row) {
+        remove(store.getId(row), store.getDescription(row));
+    }
+
+    // Union of the postings of every word starting with the prefix
+    private int[] prefixMatches(String prefix) {
+        // Concurrent searches may each build it; they sort the same words, so either copy will do
+        String[] vocabulary = this.vocabulary;
+        if (vocabulary == null) {
+            vocabulary = tokens.keySet().toArray(new String[0]);
+            Arrays.sort(vocabulary);
+            this.vocabulary = vocabulary;
+        }
+        int first = Arrays.binarySearch(vocabulary, prefix);
+        if (first < 0) first = -first - 1;
+        int last = first;
+        while (last < vocabulary.length && vocabulary[last].startsWith(prefix)) last++;
+
+        if (last - first == 1) {
+            Postings only = tokens.get(vocabulary[first]);
+            return Arrays.copyOf(only.ids, only.size);
+        }
+
+        int total = 0;
+        for (int i = first; i < last; i++) {
+            total += tokens.get(vocabulary[i]).size;
+        }
+        int[] ids = new int[total];
+        int count = 0;
+        for (int i = first; i < last; i++) {
+            Postings postings = tokens.get(vocabulary[i]);
+            System.arraycopy(postings.ids, 0, ids, count, postings.size);
+            count += postings.size;
+        }
+        Arrays.sort(ids);
+
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || ids[unique - 1] != ids[i]) {
+                ids[unique++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, unique);
+    }
+
+    // Walks the shorter list and gallops through the longer one
+    private static int[] intersect(int[] small, int[] large) {
+        int[] result = new int[small.length];
+        int count = 0;
+        int low = 0;
+        for (int id : small) {
+            int step = 1;
+            int high = low;
+            while (high < large.length && large[high] < id) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(large, low, Math.min(high + 1, large.length), id);
+            if (found >= 0) {
+                result[count++] = id;
+                low = found + 1;
+            } else {
+                low = -found - 1;
+            }
+            if (low >= large.length) break;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Growable sorted int array; ids normally arrive in increasing order so inserts append
+    private static final class Postings {
+        int[] ids = new int[INITIAL_POSTINGS];
+        int size;
+
+        void insert(int id) {
+            int position = size;
+            if (size > 0 && ids[size - 1] >= id) {
+                position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) return;
+                position = -position - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean delete(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) return false;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
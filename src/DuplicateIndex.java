@@ -0,0 +1,225 @@
+package src;
+
+import java.util.*;
+
+// Counts of transaction fingerprints (date, amount, type, category, normalized description)
+// in an open-addressing table of primitive longs, so existence checks are O(1)
+public class DuplicateIndex implements TransactionListener {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    public DuplicateIndex(TransactionStore store) {
+        this(Math.max(INITIAL_CAPACITY, store.size() * 2));
+        for (int row = 0; row < store.size(); row++) {
+            add(fingerprint(store, row));
+        }
+    }
+
+    private DuplicateIndex(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, capacity) - 1) << 1;
+        this.keys = new long[tableSize];
+        this.counts = new int[tableSize];
+    }
+
+    // Standalone copy that is no longer kept in step with the store
+    public DuplicateIndex copy() {
+        DuplicateIndex copy = new DuplicateIndex(keys.length);
+        System.arraycopy(keys, 0, copy.keys, 0, keys.length);
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.size = size;
+        return copy;
+    }
+
+    public static long fingerprint(TransactionStore store, int row) {
+        return fingerprint(store.getEpochDay(row), store.getAmountCents(row), store.getType(row),
+                           store.getCategoryId(row), store.getDescription(row));
+    }
+
+    // Descriptions are compared case-insensitively with runs of whitespace collapsed
+    public static long fingerprint(int epochDay, long cents, byte type, int categoryId, String description) {
+        long hash = 0xCBF29CE484222325L;
+        boolean space = false;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && hash != 0xCBF29CE484222325L) {
+                hash = (hash ^ ' ') * 0x100000001B3L;
+            }
+            space = false;
+            hash = (hash ^ Character.toLowerCase(c)) * 0x100000001B3L;
+        }
+
+        hash = (hash ^ epochDay) * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ cents) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ ((long) type << 32 | categoryId & 0xFFFFFFFFL)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        // 0 marks an empty slot
+        return hash != 0 ? hash : 1;
+    }
+
+    public boolean contains(long fingerprint) {
+        return counts[slot(fingerprint)] > 0;
+    }
+
+    public int count(long fingerprint) {
+        return counts[slot(fingerprint)];
+    }
+
+    // Number of distinct fingerprints
+    public int size() {
+        return size;
+    }
+
+    public void add(long fingerprint) {
+        int slot = slot(fingerprint);
+        if (counts[slot] == 0) {
+            keys[slot] = fingerprint;
+            size++;
+        }
+        counts[slot]++;
+        if (size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    public void remove(long fingerprint) {
+        int slot = slot(fingerprint);
+        if (counts[slot] == 0) return;
+        if (--counts[slot] > 0) return;
+
+        // Backward-shift deletion keeps every probe chain unbroken without tombstones
+        size--;
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; counts[next] != 0; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        counts[hole] = 0;
+    }
+
+    // Groups of rows with matching fields, each in row order; groups ordered by first row
+    public List<int[]> findDuplicates(TransactionStore store) {
+        Map<Long, List<Integer>> buckets = new LinkedHashMap<>();
+        for (int row = 0; row < store.size(); row++) {
+            long fingerprint = fingerprint(store, row);
+            if (count(fingerprint) > 1) {
+                buckets.computeIfAbsent(fingerprint, key -> new ArrayList<>()).add(row);
+            }
+        }
+
+        // A shared fingerprint only nominates rows; the fields themselves are compared, so a hash
+        // collision never reports, or lets anyone delete, a transaction that is not a copy
+        List<int[]> duplicates = new ArrayList<>(buckets.size());
+        for (List<Integer> rows : buckets.values()) {
+            List<List<Integer>> groups = new ArrayList<>(1);
+            for (int row : rows) {
+                List<Integer> group = null;
+                for (List<Integer> candidate : groups) {
+                    if (sameTransaction(store, candidate.get(0), row)) {
+                        group = candidate;
+                        break;
+                    }
+                }
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.add(group);
+                }
+                group.add(row);
+            }
+            for (List<Integer> group : groups) {
+                if (group.size() > 1) {
+                    duplicates.add(group.stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+        }
+        duplicates.sort(Comparator.comparingInt(group -> group[0]));
+        return duplicates;
+    }
+
+    // The comparison the fingerprint stands for: same day, amount, type, category and description
+    static boolean sameTransaction(TransactionStore store, int first, int second) {
+        return store.getEpochDay(first) == store.getEpochDay(second)
+            && store.getAmountCents(first) == store.getAmountCents(second)
+            && store.getType(first) == store.getType(second)
+            && store.getCategoryId(first) == store.getCategoryId(second)
+            && normalize(store.getDescription(first)).equals(normalize(store.getDescription(second)));
+    }
+
+    // Lower case with runs of whitespace collapsed and the ends trimmed, as the fingerprint reads it
+    static String normalize(String description) {
+        StringBuilder sb = new StringBuilder(description.length());
+        boolean space = false;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && sb.length() > 0) {
+                sb.append(' ');
+            }
+            space = false;
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    // Listener hooks keep the counts in step with the store
+    @Override
+    public void transactionAdded(TransactionStore store, int row) {
+        add(fingerprint(store, row));
+    }
+
+    @Override
+    public void transactionUpdated(TransactionStore store, int row, Transaction previous) {
+        remove(fingerprint((int) previous.getDate().toEpochDay(), previous.getAmountCents(),
+                           TransactionStore.typeCode(previous.getType()),
+                           store.lookupCategory(previous.getCategory()), previous.getDescription()));
+        add(fingerprint(store, row));
+    }
+
+    @Override
+    public void transactionRemoved(TransactionStore store, int row) {
+        remove(fingerprint(store, row));
+    }
+
+    // Slot holding the fingerprint, or the empty slot where it would go
+    private int slot(long fingerprint) {
+        int mask = keys.length - 1;
+        int slot = home(fingerprint);
+        while (counts[slot] != 0 && keys[slot] != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int home(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & (keys.length - 1);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
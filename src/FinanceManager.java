@@ -1,5 +1,8 @@
 package src;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
@@ -7,25 +10,40 @@ import java.time.format.DateTimeParseException;
 import java.util.*;
 
 public class FinanceManager {
-    private List<Transaction> transactions;
+    private TransactionStore transactions;
+    // Guards the store, budgets and goals once the JSON API may be reading them
+    private Ledger ledger;
     private List<SavingsGoal> savingsGoals;
-    private Budget currentBudget;
+    private BudgetHistory budgets;
     private DataManager dataManager;
     private Scanner scanner;
     private ReportGenerator reportGenerator;
+    private BudgetAlerts budgetAlerts;
+    private LedgerServer server;
+
+    // Months read at startup in lazy mode: enough for the current-month summary and recent views
+    private static final int RECENT_MONTHS = 3;
+    private static final int PAGE_SIZE = 50;
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     public FinanceManager() {
-        this.transactions = new ArrayList<>();
-        this.savingsGoals = new ArrayList<>();
-        this.currentBudget = new Budget();
+        this.transactions = new TransactionStore();
         this.dataManager = new DataManager();
         this.scanner = new Scanner(System.in);
 
         loadAllData();
-        this.reportGenerator = new ReportGenerator(transactions, currentBudget);
+        this.ledger = new Ledger(transactions);
+        this.reportGenerator = new ReportGenerator(transactions, this::budgets);
+        this.budgetAlerts = new BudgetAlerts(transactions, this::budgets, BudgetAlerts.configuredThresholds());
+        budgetAlerts.addListener(this::printBudgetAlert);
+        startServer();
     }
 
     public static void main(String[] args) {
+        // Any arguments select batch mode, which never starts the menu
+        if (args.length > 0) {
+            System.exit(BatchRunner.runCommandLine(args));
+        }
         FinanceManager manager = new FinanceManager();
         manager.run();
     }
@@ -74,6 +92,9 @@ public class FinanceManager {
                     saveAllData();
                     System.out.println("\nThank you for using Personal Finance Manager!");
                     System.out.println("Remember to review your spending regularly for better financial health!");
+                    if (server != null) {
+                        server.stop();
+                    }
                     return;
                 default:
                     System.out.println("Invalid choice. Please try again.");
@@ -111,7 +132,7 @@ public class FinanceManager {
         int choice = getIntInput("Choose type (1-2): ");
         String type = choice == 1 ? "INCOME" : "EXPENSE";
 
-        double amount = getDoubleInput("Enter amount: $");
+        long amount = getMoneyInput("Enter amount: $");
         if (amount <= 0) {
             System.out.println("Amount must be positive.");
             return;
@@ -141,33 +162,36 @@ public class FinanceManager {
             }
         }
 
-        Transaction transaction = new Transaction(type, amount, category, description, date);
-        transactions.add(transaction);
+        // The month's spending must be in memory for the budget alerts to see its running total
+        loadFrom(YearMonth.from(date));
+        Transaction transaction = Transaction.ofCents(type, amount, category, description, date);
+        ledger.write(() -> transactions.add(transaction));
 
         System.out.println("Transaction added successfully!");
         System.out.println(transaction);
 
-        // Check budget if it's an expense
-        if (type.equals("EXPENSE") && currentBudget.hasBudget(category)) {
-            double spent = getMonthlySpending(category, YearMonth.from(date));
-            double budget = currentBudget.getBudget(category);
-            double remaining = budget - spent;
-
-            System.out.printf("\n%s budget: $%.2f remaining this month\n", 
-                            category, remaining);
-
-            if (currentBudget.isNearBudgetLimit(category, spent, 0.8)) {
-                System.out.println("Warning: You've used 80% of your budget for " + category);
-            }
+        // Threshold warnings come from the budget alerts as the row is added
+        Budget budget = budgets().getEffectiveBudget(YearMonth.from(date));
+        if (type.equals("EXPENSE") && budget.hasBudget(category)) {
+            long remaining = budget.getBudgetCents(category) - getMonthlySpending(category, YearMonth.from(date));
+            System.out.printf("\n%s budget: $%s remaining this month\n", 
+                            category, Money.format(remaining));
+        }
+    }
 
-            if (currentBudget.isOverBudget(category, spent)) {
-                System.out.println("Alert: You've exceeded your budget for " + category);
-            }
+    private void printBudgetAlert(YearMonth month, int categoryId, int threshold, long spentCents, long budgetCents) {
+        String category = Category.getName(categoryId);
+        if (threshold < 100) {
+            System.out.printf("Warning: You've used %d%% of your %s budget for %s ($%s of $%s)\n",
+                              threshold, month, category, Money.format(spentCents), Money.format(budgetCents));
+        } else {
+            System.out.printf("Alert: You've reached %d%% of your %s budget for %s ($%s of $%s)\n",
+                              threshold, month, category, Money.format(spentCents), Money.format(budgetCents));
         }
     }
 
     private void viewTransactionsMenu() {
-        if (transactions.isEmpty()) {
+        if (!hasTransactions()) {
             System.out.println("\nNo transactions found. Add some transactions first!");
             return;
         }
@@ -178,72 +202,133 @@ public class FinanceManager {
         System.out.println("3. Income Only");
         System.out.println("4. Expenses Only");
         System.out.println("5. By Category");
+        System.out.println("6. Search Descriptions");
 
-        int choice = getIntInput("Choose view (1-5): ");
-        List<Transaction> toDisplay = new ArrayList<>();
+        int choice = getIntInput("Choose view (1-6): ");
+        int[] toDisplay = new int[0];
+        if (choice == 2) {
+            loadFrom(YearMonth.now());
+        } else {
+            loadAllTransactions();
+        }
 
         switch (choice) {
             case 1:
-                toDisplay = new ArrayList<>(transactions);
-                break;
+                browseTransactions();
+                return;
             case 2:
-                YearMonth currentMonth = YearMonth.now();
-                toDisplay = transactions.stream()
-                    .filter(t -> YearMonth.from(t.getDate()).equals(currentMonth))
-                    .collect(java.util.stream.Collectors.toList());
+                toDisplay = transactions.selectMonth(YearMonth.now());
                 break;
             case 3:
-                toDisplay = transactions.stream()
-                    .filter(t -> t.getType().equals("INCOME"))
-                    .collect(java.util.stream.Collectors.toList());
+                toDisplay = transactions.selectRows(transactions::isIncome);
                 break;
             case 4:
-                toDisplay = transactions.stream()
-                    .filter(t -> t.getType().equals("EXPENSE"))
-                    .collect(java.util.stream.Collectors.toList());
+                toDisplay = transactions.selectRows(transactions::isExpense);
                 break;
             case 5:
                 System.out.print("Enter category name: ");
                 String category = scanner.nextLine();
-                toDisplay = transactions.stream()
-                    .filter(t -> t.getCategory().equalsIgnoreCase(category))
-                    .collect(java.util.stream.Collectors.toList());
+                boolean[] matches = new boolean[transactions.getCategoryCount()];
+                for (int categoryId = 0; categoryId < matches.length; categoryId++) {
+                    matches[categoryId] = transactions.getCategoryName(categoryId).equalsIgnoreCase(category);
+                }
+                toDisplay = transactions.selectRows(row -> matches[transactions.getCategoryId(row)]);
+                break;
+            case 6:
+                System.out.print("Search for (words or word prefixes): ");
+                String query = scanner.nextLine();
+                toDisplay = transactions.getDescriptionIndex().searchRows(transactions, query);
                 break;
         }
 
-        if (toDisplay.isEmpty()) {
+        if (toDisplay.length == 0) {
             System.out.println("\nNo transactions found for your selection.");
             return;
         }
 
-        System.out.println("\n" + "=".repeat(80));
-        System.out.printf("%-5s %-8s %-10s %-20s %-25s %-12s\n", 
-                        "ID", "TYPE", "AMOUNT", "CATEGORY", "DESCRIPTION", "DATE");
-        System.out.println("=".repeat(80));
+        printTransactionHeader();
 
-        toDisplay.sort((t1, t2) -> t2.getDate().compareTo(t1.getDate()));
+        transactions.sortByDateDescending(toDisplay);
 
-        for (Transaction t : toDisplay) {
-            System.out.printf("%-5d %-8s $%-9.2f %-20s %-25s %-12s\n",
-                            t.getId(), t.getType(), t.getAmount(),
-                            t.getCategory(), 
-                            t.getDescription().length() > 24 ? 
-                                t.getDescription().substring(0, 21) + "..." : t.getDescription(),
-                            t.getDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+        for (int row : toDisplay) {
+            printTransactionRow(row);
         }
 
-        double total = toDisplay.stream().mapToDouble(
-            t -> t.getType().equals("INCOME") ? t.getAmount() : -t.getAmount()
-        ).sum();
+        long total = transactions.sumCents(toDisplay, TransactionStore.INCOME)
+                   - transactions.sumCents(toDisplay, TransactionStore.EXPENSE);
+
+        System.out.println("=".repeat(80));
+        System.out.printf("Total: $%s (%d transactions)\n", Money.format(Math.abs(total)), toDisplay.length);
+    }
+
+    // Walks the date index newest first a page at a time, so each page costs O(page) to show
+    private void browseTransactions() {
+        DateIndex index = transactions.getDateIndex();
+        int count = index.size();
+        // Position in the date index of the newest row on the current page
+        int top = count - 1;
+
+        while (true) {
+            int bottom = Math.max(0, top - PAGE_SIZE + 1);
+            printTransactionHeader();
+            for (int position = top; position >= bottom; position--) {
+                printTransactionRow(index.rowAt(position));
+            }
+            System.out.println("=".repeat(80));
+            System.out.printf("Showing %d-%d of %d transactions, newest first (page %d of %d)\n",
+                              count - top, count - bottom, count,
+                              (count - 1 - top) / PAGE_SIZE + 1, (count + PAGE_SIZE - 1) / PAGE_SIZE);
+
+            System.out.print("[N]ext, [P]revious, [D]ate, [Q]uit: ");
+            String command = scanner.nextLine().trim().toLowerCase();
+            if (command.isEmpty() || command.equals("n")) {
+                if (bottom == 0) {
+                    System.out.println("That was the oldest page.");
+                    return;
+                }
+                top = bottom - 1;
+            } else if (command.equals("p")) {
+                top = Math.min(count - 1, top + PAGE_SIZE);
+            } else if (command.equals("d")) {
+                System.out.print("Show transactions on or before (YYYY-MM-DD): ");
+                try {
+                    LocalDate date = LocalDate.parse(scanner.nextLine().trim());
+                    int after = index.positionOf((int) date.toEpochDay() + 1);
+                    if (after == 0) {
+                        System.out.println("No transactions on or before " + date + ".");
+                    } else {
+                        top = after - 1;
+                    }
+                } catch (DateTimeParseException e) {
+                    System.out.println("Invalid date format.");
+                }
+            } else {
+                return;
+            }
+        }
+    }
 
+    private void printTransactionHeader() {
+        System.out.println("\n" + "=".repeat(80));
+        System.out.printf("%-5s %-8s %-10s %-20s %-25s %-12s\n", 
+                        "ID", "TYPE", "AMOUNT", "CATEGORY", "DESCRIPTION", "DATE");
         System.out.println("=".repeat(80));
-        System.out.printf("Total: $%.2f (%d transactions)\n", Math.abs(total), toDisplay.size());
+    }
+
+    private void printTransactionRow(int row) {
+        String description = transactions.getDescription(row);
+        System.out.printf("%-5d %-8s $%-9s %-20s %-25s %-12s\n",
+                        transactions.getId(row), TransactionStore.typeName(transactions.getType(row)),
+                        Money.format(transactions.getAmountCents(row)),
+                        transactions.getCategory(row), 
+                        description.length() > 24 ? description.substring(0, 21) + "..." : description,
+                        transactions.getDate(row).format(DISPLAY_DATE));
     }
 
     private void budgetManagementMenu() {
         System.out.println("\n=== BUDGET MANAGEMENT ===");
         System.out.println("1. Set Category Budget");
-        System.out.println("2. View Current Budget");
+        System.out.println("2. View Budget");
         System.out.println("3. Budget vs Spending Report");
 
         int choice = getIntInput("Choose option (1-3): ");
@@ -271,59 +356,68 @@ public class FinanceManager {
             return;
         }
 
-        double amount = getDoubleInput("Enter budget amount for " + category + ": $");
+        long amount = getMoneyInput("Enter budget amount for " + category + ": $");
         if (amount < 0) {
             System.out.println("Budget amount cannot be negative.");
             return;
         }
+        YearMonth month = getMonthInput();
 
-        currentBudget.setBudget(category, amount);
-        System.out.printf("Budget set: %s = $%.2f\n", category, amount);
+        // Later months without their own budget carry this one forward
+        ledger.write(() -> budgets().setBudgetCents(month, Category.intern(category), amount));
+        System.out.printf("Budget set for %s: %s = $%s\n", month, category, Money.format(amount));
 
-        // Show current spending for this category
-        YearMonth currentMonth = YearMonth.now();
-        double spent = getMonthlySpending(category, currentMonth);
-        double remaining = amount - spent;
+        // Show spending so far for this category
+        long spent = getMonthlySpending(category, month);
+        long remaining = amount - spent;
 
-        System.out.printf("Current spending this month: $%.2f\n", spent);
-        System.out.printf("Remaining budget: $%.2f\n", remaining);
+        System.out.printf("Spending in %s: $%s\n", month, Money.format(spent));
+        System.out.printf("Remaining budget: $%s\n", Money.format(remaining));
     }
 
     private void viewBudget() {
-        if (currentBudget.getAllBudgets().isEmpty()) {
+        if (budgets().isEmpty()) {
             System.out.println("\nNo budgets set. Set some budgets first!");
             return;
         }
 
-        System.out.println("\n=== CURRENT BUDGET ===");
-        System.out.println(currentBudget);
+        YearMonth month = getMonthInput();
+        Budget monthBudget = budgets().getEffectiveBudget(month);
+        if (monthBudget.isEmpty()) {
+            System.out.println("\nNo budget in force for " + month + ".");
+            return;
+        }
+
+        System.out.println("\n=== BUDGET FOR " + month + " ===");
+        if (!monthBudget.getBudgetMonth().equals(month)) {
+            System.out.println("(carried forward from " + monthBudget.getBudgetMonth() + ")");
+        }
+        System.out.println(monthBudget);
 
-        YearMonth currentMonth = YearMonth.now();
+        loadFrom(month);
         System.out.println("\n--- BUDGET STATUS ---");
 
-        for (Map.Entry<String, Double> entry : currentBudget.getAllBudgets().entrySet()) {
-            String category = entry.getKey();
-            double budget = entry.getValue();
-            double spent = getMonthlySpending(category, currentMonth);
-            double percentage = budget > 0 ? (spent / budget) * 100 : 0;
+        for (int categoryId : monthBudget.getBudgetedCategoryIds()) {
+            String category = Category.getName(categoryId);
+            long budget = monthBudget.getBudgetCents(categoryId);
+            long spent = transactions.getAggregates()
+                .getCents(month, categoryId, TransactionStore.EXPENSE);
 
             String status = spent <= budget ? "✅" : "🚨";
-            System.out.printf("%s %-20s: $%.2f / $%.2f (%.1f%%)\n", 
-                            status, category, spent, budget, percentage);
+            System.out.printf("%s %-20s: $%s / $%s (%.1f%%)\n", 
+                            status, category, Money.format(spent), Money.format(budget),
+                            Money.percent(spent, budget));
         }
     }
 
     private void budgetReport() {
-        YearMonth currentMonth = YearMonth.now();
-        List<Transaction> monthlyTransactions = transactions.stream()
-            .filter(t -> YearMonth.from(t.getDate()).equals(currentMonth))
-            .collect(java.util.stream.Collectors.toList());
-
-        reportGenerator.generateMonthlyReport(currentMonth);
+        YearMonth month = getMonthInput();
+        loadFrom(month);
+        reportGenerator.generateMonthlyReport(month);
     }
 
     private void reportsMenu() {
-        if (transactions.isEmpty()) {
+        if (!hasTransactions()) {
             System.out.println("\n📭 No transactions found. Add some transactions first!");
             return;
         }
@@ -337,18 +431,8 @@ public class FinanceManager {
 
         switch (choice) {
             case 1:
-                System.out.print("Enter month (YYYY-MM) or press Enter for current month: ");
-                String monthInput = scanner.nextLine().trim();
-                YearMonth month = YearMonth.now();
-
-                if (!monthInput.isEmpty()) {
-                    try {
-                        month = YearMonth.parse(monthInput);
-                    } catch (DateTimeParseException e) {
-                        System.out.println("Invalid format. Using current month.");
-                    }
-                }
-
+                YearMonth month = getMonthInput();
+                loadFrom(month);
                 reportGenerator.generateMonthlyReport(month);
                 break;
 
@@ -356,6 +440,7 @@ public class FinanceManager {
                 int year = getIntInput("Enter year (or 0 for current year): ");
                 if (year == 0) year = LocalDate.now().getYear();
 
+                loadFrom(YearMonth.of(year, 1));
                 reportGenerator.generateYearlyReport(year);
                 break;
 
@@ -394,7 +479,7 @@ public class FinanceManager {
         System.out.print("Goal name: ");
         String name = scanner.nextLine();
 
-        double targetAmount = getDoubleInput("Target amount: $");
+        long targetAmount = getMoneyInput("Target amount: $");
         if (targetAmount <= 0) {
             System.out.println("Target amount must be positive.");
             return;
@@ -412,8 +497,8 @@ public class FinanceManager {
             System.out.print("Description (optional): ");
             String description = scanner.nextLine();
 
-            SavingsGoal goal = new SavingsGoal(name, targetAmount, targetDate, description);
-            savingsGoals.add(goal);
+            SavingsGoal goal = SavingsGoal.ofCents(name, targetAmount, targetDate, description);
+            ledger.write(() -> goals().add(goal));
 
             System.out.println("Savings goal created!");
             System.out.println(goal);
@@ -424,13 +509,13 @@ public class FinanceManager {
     }
 
     private void viewSavingsGoals() {
-        if (savingsGoals.isEmpty()) {
+        if (goals().isEmpty()) {
             System.out.println("\nNo savings goals found. Create some goals first!");
             return;
         }
 
         System.out.println("\n=== YOUR SAVINGS GOALS ===");
-        for (SavingsGoal goal : savingsGoals) {
+        for (SavingsGoal goal : goals()) {
             System.out.println("\n" + "-".repeat(50));
             System.out.println(goal);
 
@@ -443,7 +528,7 @@ public class FinanceManager {
     }
 
     private void updateGoalProgress() {
-        if (savingsGoals.isEmpty()) {
+        if (goals().isEmpty()) {
             System.out.println("\nNo savings goals found.");
             return;
         }
@@ -451,7 +536,7 @@ public class FinanceManager {
         viewSavingsGoals();
         int goalId = getIntInput("\nEnter goal ID to update: ");
 
-        SavingsGoal goal = savingsGoals.stream()
+        SavingsGoal goal = goals().stream()
             .filter(g -> g.getId() == goalId)
             .findFirst().orElse(null);
 
@@ -460,11 +545,11 @@ public class FinanceManager {
             return;
         }
 
-        System.out.printf("Current amount: $%.2f\n", goal.getCurrentAmount());
-        double amount = getDoubleInput("Add to savings: $");
+        System.out.printf("Current amount: $%s\n", Money.format(goal.getCurrentCents()));
+        long amount = getMoneyInput("Add to savings: $");
 
         if (amount > 0) {
-            goal.addToSavings(amount);
+            ledger.write(() -> goal.addToSavingsCents(amount));
             System.out.println("Goal updated!");
             System.out.println(goal);
 
@@ -478,7 +563,7 @@ public class FinanceManager {
     }
 
     private void deleteGoal() {
-        if (savingsGoals.isEmpty()) {
+        if (goals().isEmpty()) {
             System.out.println("\nNo savings goals found.");
             return;
         }
@@ -486,7 +571,7 @@ public class FinanceManager {
         viewSavingsGoals();
         int goalId = getIntInput("\nEnter goal ID to delete: ");
 
-        boolean removed = savingsGoals.removeIf(g -> g.getId() == goalId);
+        boolean removed = ledger.writeAndGet(() -> goals().removeIf(g -> g.getId() == goalId));
         if (removed) {
             System.out.println("Goal deleted successfully.");
         } else {
@@ -500,8 +585,10 @@ public class FinanceManager {
         System.out.println("2. Create Data Backup");
         System.out.println("3. Add Custom Category");
         System.out.println("4. View Statistics");
+        System.out.println("5. Import Bank Statement");
+        System.out.println("6. Find Duplicate Transactions");
 
-        int choice = getIntInput("Choose option (1-4): ");
+        int choice = getIntInput("Choose option (1-6): ");
 
         switch (choice) {
             case 1:
@@ -516,19 +603,118 @@ public class FinanceManager {
             case 4:
                 showStatistics();
                 break;
+            case 5:
+                importStatement();
+                break;
+            case 6:
+                findDuplicates();
+                break;
+        }
+    }
+
+    private void findDuplicates() {
+        loadAllTransactions();
+        List<int[]> groups = transactions.getDuplicateIndex().findDuplicates(transactions);
+        if (groups.isEmpty()) {
+            System.out.println("\n✅ No duplicate transactions found.");
+            return;
+        }
+
+        System.out.println("\n=== DUPLICATE TRANSACTIONS ===");
+        BitSet extraCopies = new BitSet();
+        for (int[] rows : groups) {
+            System.out.println(transactions.get(rows[0]));
+            for (int i = 1; i < rows.length; i++) {
+                System.out.println("  duplicate: " + transactions.get(rows[i]));
+                extraCopies.set(rows[i]);
+            }
+        }
+
+        System.out.printf("\n%d duplicate groups, %d extra copies.\n", groups.size(), extraCopies.cardinality());
+        System.out.print("Remove the extra copies, keeping the first of each? (y/N): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            ledger.write(() -> transactions.removeAll(extraCopies));
+            System.out.println("Removed " + extraCopies.cardinality() + " transactions.");
         }
     }
 
+    private void importStatement() {
+        System.out.print("Statement file (CSV): ");
+        String path = scanner.nextLine().trim();
+        if (!new File(path).isFile()) {
+            System.out.println("❌ File not found: " + path);
+            return;
+        }
+
+        // Duplicate checks need the whole ledger
+        loadAllTransactions();
+        // Parsed with no lock held; rows go in under the write lock a batch at a time
+        StatementImporter.ImportResult result = new StatementImporter(ledger).importFile(Paths.get(path));
+        result.print();
+    }
+
     private void exportData() {
+        loadAllTransactions();
         if (transactions.isEmpty()) {
             System.out.println("\n📭 No transactions to export.");
             return;
         }
 
+        System.out.println("\n=== Export Transactions ===");
+        System.out.println("1. All Transactions");
+        System.out.println("2. Date Range");
+        System.out.println("3. Income Only");
+        System.out.println("4. Expenses Only");
+        System.out.println("5. By Category");
+
+        int choice = getIntInput("Choose export (1-5): ");
+        TransactionFilter filter = TransactionFilter.all();
+
+        switch (choice) {
+            case 1:
+                break;
+            case 2:
+                try {
+                    System.out.print("From date (YYYY-MM-DD or press Enter for no limit): ");
+                    String fromInput = scanner.nextLine().trim();
+                    System.out.print("To date (YYYY-MM-DD or press Enter for no limit): ");
+                    String toInput = scanner.nextLine().trim();
+                    filter.between(fromInput.isEmpty() ? null : LocalDate.parse(fromInput),
+                                   toInput.isEmpty() ? null : LocalDate.parse(toInput));
+                } catch (DateTimeParseException e) {
+                    System.out.println("❌ Invalid date format.");
+                    return;
+                }
+                break;
+            case 3:
+                filter.ofType(TransactionStore.INCOME);
+                break;
+            case 4:
+                filter.ofType(TransactionStore.EXPENSE);
+                break;
+            case 5:
+                System.out.print("Enter category name: ");
+                String name = scanner.nextLine().trim();
+                int categoryId = -1;
+                for (int id = 0; id < transactions.getCategoryCount() && categoryId < 0; id++) {
+                    if (transactions.getCategoryName(id).equalsIgnoreCase(name)) {
+                        categoryId = id;
+                    }
+                }
+                filter.inCategory(categoryId);
+                break;
+            default:
+                System.out.println("❌ Invalid choice.");
+                return;
+        }
+
+        System.out.print("Compress with gzip? (y/N): ");
+        boolean gzip = scanner.nextLine().trim().equalsIgnoreCase("y");
+
         String timestamp = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String filename = "transactions_export_" + timestamp + ".csv";
+        String filename = "transactions_export_" + timestamp + (gzip ? ".csv.gz" : ".csv");
 
-        dataManager.exportTransactionsToCSV(transactions, filename);
+        dataManager.exportTransactions(ledger.snapshot(), filter, filename, gzip);
     }
 
     private void addCustomCategory() {
@@ -544,6 +730,7 @@ public class FinanceManager {
     }
 
     private void showStatistics() {
+        loadAllTransactions();
         if (transactions.isEmpty()) {
             System.out.println("\nNo data available for statistics.");
             return;
@@ -552,30 +739,44 @@ public class FinanceManager {
         System.out.println("\n=== STATISTICS ===");
         System.out.printf("Total Transactions: %d\n", transactions.size());
 
-        long incomeCount = transactions.stream().filter(t -> t.getType().equals("INCOME")).count();
-        long expenseCount = transactions.stream().filter(t -> t.getType().equals("EXPENSE")).count();
+        int incomeCount = transactions.selectRows(transactions::isIncome).length;
+        int expenseCount = transactions.size() - incomeCount;
 
         System.out.printf("Income Transactions: %d\n", incomeCount);
         System.out.printf("Expense Transactions: %d\n", expenseCount);
-        System.out.printf("Savings Goals: %d\n", savingsGoals.size());
-        System.out.printf("Budget Categories: %d\n", currentBudget.getAllBudgets().size());
+        System.out.printf("Savings Goals: %d\n", goals().size());
+        System.out.printf("Budget Categories: %d\n",
+                          budgets().getEffectiveBudget(YearMonth.now()).getBudgetedCategoryIds().length);
+        System.out.printf("Budgeted Months: %d\n", budgets().getMonths().size());
 
         if (!transactions.isEmpty()) {
-            LocalDate earliestDate = transactions.stream()
-                .min(Comparator.comparing(Transaction::getDate))
-                .get().getDate();
-
-            LocalDate latestDate = transactions.stream()
-                .max(Comparator.comparing(Transaction::getDate))
-                .get().getDate();
+            int earliestDay = Integer.MAX_VALUE;
+            int latestDay = Integer.MIN_VALUE;
+            for (int row = 0; row < transactions.size(); row++) {
+                earliestDay = Math.min(earliestDay, transactions.getEpochDay(row));
+                latestDay = Math.max(latestDay, transactions.getEpochDay(row));
+            }
 
             System.out.printf("Data Range: %s to %s\n", 
-                            earliestDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
-                            latestDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
+                            LocalDate.ofEpochDay(earliestDay).format(DateTimeFormatter.ofPattern("dd/MM/yyyy")),
+                            LocalDate.ofEpochDay(latestDay).format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
         }
     }
 
     // Utility methods
+    private YearMonth getMonthInput() {
+        System.out.print("Enter month (YYYY-MM) or press Enter for current month: ");
+        String monthInput = scanner.nextLine().trim();
+        if (!monthInput.isEmpty()) {
+            try {
+                return YearMonth.parse(monthInput);
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid format. Using current month.");
+            }
+        }
+        return YearMonth.now();
+    }
+
     private int getIntInput(String prompt) {
         while (true) {
             try {
@@ -588,37 +789,113 @@ public class FinanceManager {
         }
     }
 
-    private double getDoubleInput(String prompt) {
+    // Amounts are read straight into cents so no binary rounding creeps in
+    private long getMoneyInput(String prompt) {
         while (true) {
             try {
                 System.out.print(prompt);
                 String input = scanner.nextLine().trim();
-                return Double.parseDouble(input);
+                return Money.parse(input);
             } catch (NumberFormatException e) {
                 System.out.println("Please enter a valid amount.");
             }
         }
     }
 
-    private double getMonthlySpending(String category, YearMonth month) {
-        return transactions.stream()
-            .filter(t -> t.getType().equals("EXPENSE"))
-            .filter(t -> t.getCategory().equals(category))
-            .filter(t -> YearMonth.from(t.getDate()).equals(month))
-            .mapToDouble(Transaction::getAmount)
-            .sum();
+    private long getMonthlySpending(String category, YearMonth month) {
+        loadFrom(month);
+        int categoryId = transactions.lookupCategory(category);
+        if (categoryId < 0) return 0;
+
+        return transactions.getAggregates().getCents(month, categoryId, TransactionStore.EXPENSE);
     }
 
     private void loadAllData() {
         System.out.println("\nLoading data...");
+        dataManager.loadCustomCategories();
+        if (Boolean.getBoolean("finance.lazyLoad")) {
+            transactions = dataManager.loadRecentTransactions(YearMonth.now().minusMonths(RECENT_MONTHS - 1));
+            return;
+        }
+
+        LedgerSnapshot snapshot = dataManager.loadSnapshot();
+        if (snapshot != null) {
+            transactions = snapshot.getTransactions();
+            budgets = snapshot.getBudgets();
+            savingsGoals = snapshot.getGoals();
+            return;
+        }
+
         transactions = dataManager.loadTransactions();
-        currentBudget = dataManager.loadBudget();
-        savingsGoals = dataManager.loadSavingsGoals();
+    }
+
+    // The budgets and goals are read the first time a menu asks for them
+    // Synchronized because the JSON API may ask for them first
+    private synchronized BudgetHistory budgets() {
+        if (budgets == null) {
+            budgets = dataManager.loadBudget();
+        }
+        return budgets;
+    }
+
+    private synchronized List<SavingsGoal> goals() {
+        if (savingsGoals == null) {
+            savingsGoals = dataManager.loadSavingsGoals();
+        }
+        return savingsGoals;
+    }
+
+    // In lazy mode only recent months are in memory; these page older ones in before use
+    private void loadFrom(YearMonth month) {
+        ledger.write(() -> dataManager.ensureLoaded(transactions, month));
+    }
+
+    private void loadAllTransactions() {
+        ledger.write(() -> dataManager.ensureFullyLoaded(transactions));
+    }
+
+    // With -Dfinance.httpPort the JSON API serves the ledger alongside the menu
+    private void startServer() {
+        Integer port = Integer.getInteger("finance.httpPort");
+        if (port == null) return;
+
+        // The API reads the whole ledger, so nothing is left to page in under it; the indexes
+        // it walks are built now rather than by the first requests
+        loadAllTransactions();
+        ledger.write(() -> {
+            transactions.getDateIndex().size();
+            transactions.getDescriptionIndex();
+        });
+        try {
+            server = new LedgerServer(ledger, this::budgets, this::goals);
+            server.start(port);
+            System.out.println("JSON API listening on http://localhost:" + server.getPort() + "/api/");
+        } catch (IOException e) {
+            System.err.println("Error starting JSON API: " + e.getMessage());
+            server = null;
+        }
+    }
+
+    private boolean hasTransactions() {
+        if (transactions.isEmpty()) {
+            loadAllTransactions();
+        }
+        return !transactions.isEmpty();
     }
 
     private void saveAllData() {
+        dataManager.saveCustomCategories();
         dataManager.saveTransactions(transactions);
-        dataManager.saveBudget(currentBudget);
-        dataManager.saveSavingsGoals(savingsGoals);
+        if (budgets != null) {
+            dataManager.saveBudget(budgets);
+        }
+        if (savingsGoals != null) {
+            dataManager.saveSavingsGoals(savingsGoals);
+        }
+        // The snapshot images every section, so it is only written once the budgets and goals
+        // are in memory; an older snapshot no longer matches the saved files and is ignored on load
+        if (budgets != null && savingsGoals != null) {
+            dataManager.saveSnapshot(transactions, budgets, savingsGoals);
+        }
     }
 }
\ No newline at end of file
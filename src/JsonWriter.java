@@ -0,0 +1,158 @@
+package src;
+
+// Minimal streaming JSON builder; commas are placed automatically and money is written
+// as an exact decimal straight from cents
+public class JsonWriter {
+    private final StringBuilder sb;
+    // One bit per open container: set once it has its first element
+    private long started;
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter() {
+        this(new StringBuilder(256));
+    }
+
+    public JsonWriter(StringBuilder sb) {
+        this.sb = sb;
+    }
+
+    public JsonWriter beginObject() {
+        separate();
+        sb.append('{');
+        return open();
+    }
+
+    public JsonWriter endObject() {
+        depth--;
+        sb.append('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        separate();
+        sb.append('[');
+        return open();
+    }
+
+    public JsonWriter endArray() {
+        depth--;
+        sb.append(']');
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        separate();
+        quote(name);
+        sb.append(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            sb.append("null");
+        } else {
+            quote(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separate();
+        sb.append(value);
+        return this;
+    }
+
+    public JsonWriter value(double value) {
+        separate();
+        if (Double.isFinite(value)) {
+            sb.append(value);
+        } else {
+            sb.append("null");
+        }
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separate();
+        sb.append(value);
+        return this;
+    }
+
+    public JsonWriter money(long cents) {
+        separate();
+        Money.append(sb, cents);
+        return this;
+    }
+
+    // Shorthands for the common name/value pairs
+    public JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, double value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    public JsonWriter moneyField(String name, long cents) {
+        return name(name).money(cents);
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    private JsonWriter open() {
+        if (depth == Long.SIZE) {
+            throw new IllegalStateException("JSON nested too deeply");
+        }
+        started &= ~(1L << depth);
+        depth++;
+        return this;
+    }
+
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth == 0) return;
+        long bit = 1L << (depth - 1);
+        if ((started & bit) != 0) {
+            sb.append(',');
+        }
+        started |= bit;
+    }
+
+    private void quote(String text) {
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
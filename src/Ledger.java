@@ -0,0 +1,63 @@
+package src;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Shares one store between the thread that changes it and any number of reader threads.
+// Changes run one at a time under the write lock. Readers take a snapshot, which holds the read
+// lock only while the columns and indexes are shared with it, and then query it with no lock
+// held, so reports and exports never hold up inserts; short lookups on the live store, such as
+// the word index, may run under the read lock instead. The lock is reentrant, so a change may
+// page rows in or read the store on its way. Code on the thread that makes every change may
+// read the store directly.
+public class Ledger {
+    private final TransactionStore store;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public Ledger(TransactionStore store) {
+        this.store = store;
+    }
+
+    // For setup such as registering listeners; other threads read through read() or snapshot()
+    public TransactionStore getStore() {
+        return store;
+    }
+
+    public <T> T read(Function<TransactionStore, T> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(store);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public <T> T writeAndGet(Supplier<T> change) {
+        lock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Consistent read-only view of every row at this moment; later changes never show through
+    public TransactionStore snapshot() {
+        lock.readLock().lock();
+        try {
+            return store.snapshot();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
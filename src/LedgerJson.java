@@ -0,0 +1,172 @@
+package src;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+// JSON views of the ledger shared by batch mode and any other machine-readable output.
+// Amounts are exact decimals, dates ISO-8601 and months yyyy-MM.
+public final class LedgerJson {
+    private LedgerJson() {
+    }
+
+    public static void transaction(JsonWriter json, TransactionStore store, int row) {
+        json.beginObject()
+            .field("id", store.getId(row))
+            .field("type", TransactionStore.typeName(store.getType(row)))
+            .moneyField("amount", store.getAmountCents(row))
+            .field("category", store.getCategory(row))
+            .field("description", store.getDescription(row))
+            .field("date", store.getDate(row).toString())
+            .endObject();
+    }
+
+    public static void transactions(JsonWriter json, TransactionStore store, int[] rows) {
+        json.beginArray();
+        for (int row : rows) {
+            transaction(json, store, row);
+        }
+        json.endArray();
+    }
+
+    // Totals, per-month figures and categories by spending for the result's month range
+    public static void report(JsonWriter json, TransactionStore store, ReportResult result) {
+        json.beginObject()
+            .field("from", result.getFirstMonth().toString())
+            .field("to", result.getMonth(result.getMonthCount() - 1).toString())
+            .field("transactions", result.getTransactionCount())
+            .moneyField("income", result.getIncomeCents())
+            .moneyField("expenses", result.getExpenseCents())
+            .moneyField("net", result.getNetCents());
+
+        json.name("months").beginArray();
+        for (int i = 0; i < result.getMonthCount(); i++) {
+            long income = result.getMonthIncomeCents(i);
+            long expenses = result.getMonthExpenseCents(i);
+            json.beginObject()
+                .field("month", result.getMonth(i).toString())
+                .moneyField("income", income)
+                .moneyField("expenses", expenses)
+                .moneyField("net", income - expenses)
+                .endObject();
+        }
+        json.endArray();
+
+        json.name("categories").beginArray();
+        for (int categoryId : result.getCategoriesBySpending()) {
+            long cents = result.getCategoryExpenseCents(categoryId);
+            json.beginObject()
+                .field("category", store.getCategoryName(categoryId))
+                .moneyField("expenses", cents)
+                .field("percent", Money.percent(cents, result.getExpenseCents()))
+                .endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    // Budget in force for the month against actual spending; actual must cover the month
+    public static void budget(JsonWriter json, YearMonth month, Budget budget, ReportResult actual) {
+        json.beginObject()
+            .field("month", month.toString())
+            .field("budgetMonth", budget.getBudgetMonth().toString())
+            .moneyField("total", budget.getTotalBudgetCents());
+
+        json.name("categories").beginArray();
+        for (int categoryId : budget.getBudgetedCategoryIds()) {
+            long budgeted = budget.getBudgetCents(categoryId);
+            long spent = actual != null ? actual.getCategoryExpenseCents(categoryId) : 0;
+            json.beginObject()
+                .field("category", Category.getName(categoryId))
+                .moneyField("budget", budgeted)
+                .moneyField("spent", spent)
+                .moneyField("remaining", budgeted - spent)
+                .field("percent", Money.percent(spent, budgeted))
+                .field("over", spent > budgeted)
+                .endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    // Yearly totals per budgeted category, with the month-by-month figures
+    public static void budgetYear(JsonWriter json, BudgetComparison comparison) {
+        json.beginObject()
+            .field("year", comparison.getYear());
+
+        json.name("categories").beginArray();
+        for (int categoryId : comparison.getCategoryIds()) {
+            long budgeted = comparison.getYearBudgetCents(categoryId);
+            long spent = comparison.getYearActualCents(categoryId);
+            json.beginObject()
+                .field("category", Category.getName(categoryId))
+                .moneyField("budget", budgeted)
+                .moneyField("spent", spent)
+                .field("percent", Money.percent(spent, budgeted))
+                .field("monthsOver", comparison.getMonthsOverBudget(categoryId));
+
+            json.name("months").beginArray();
+            for (int month = 0; month < 12; month++) {
+                if (!comparison.isBudgeted(month, categoryId)) continue;
+                json.beginObject()
+                    .field("month", YearMonth.of(comparison.getYear(), month + 1).toString())
+                    .moneyField("budget", comparison.getBudgetCents(month, categoryId))
+                    .moneyField("spent", comparison.getActualCents(month, categoryId))
+                    .endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    public static void goals(JsonWriter json, List<SavingsGoal> goals) {
+        json.beginArray();
+        for (SavingsGoal goal : goals) {
+            json.beginObject()
+                .field("id", goal.getId())
+                .field("name", goal.getName())
+                .moneyField("target", goal.getTargetCents())
+                .moneyField("current", goal.getCurrentCents())
+                .moneyField("remaining", goal.getRemainingCents())
+                .field("percent", goal.getProgressPercentage())
+                .field("startDate", goal.getStartDate().toString())
+                .field("targetDate", goal.getTargetDate().toString())
+                .field("achieved", goal.isGoalAchieved())
+                .field("description", goal.getDescription())
+                .endObject();
+        }
+        json.endArray();
+    }
+
+    // Counts, totals and the date span of the whole ledger
+    public static void stats(JsonWriter json, TransactionStore store) {
+        int incomeCount = 0;
+        long incomeCents = 0;
+        long expenseCents = 0;
+        int earliestDay = Integer.MAX_VALUE;
+        int latestDay = Integer.MIN_VALUE;
+        for (int row = 0; row < store.size(); row++) {
+            if (store.isIncome(row)) {
+                incomeCount++;
+                incomeCents += store.getAmountCents(row);
+            } else {
+                expenseCents += store.getAmountCents(row);
+            }
+            earliestDay = Math.min(earliestDay, store.getEpochDay(row));
+            latestDay = Math.max(latestDay, store.getEpochDay(row));
+        }
+
+        json.beginObject()
+            .field("transactions", store.size())
+            .field("incomeTransactions", incomeCount)
+            .field("expenseTransactions", store.size() - incomeCount)
+            .moneyField("income", incomeCents)
+            .moneyField("expenses", expenseCents)
+            .moneyField("net", incomeCents - expenseCents)
+            .field("firstDate", store.isEmpty() ? null : LocalDate.ofEpochDay(earliestDay).toString())
+            .field("lastDate", store.isEmpty() ? null : LocalDate.ofEpochDay(latestDay).toString())
+            .endObject();
+    }
+}
@@ -0,0 +1,344 @@
+package src;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * Read-only JSON API over the in-memory ledger, bound to localhost. Each request takes a snapshot
+ * of the ledger, which holds the read lock only for the moment it takes, and renders from it with
+ * no lock held, so a long report or export never holds up the console's changes. Budgets and goals
+ * are small and are read under the read lock.
+ *
+ *   GET /api/transactions   from, to (YYYY-MM-DD), type, category, q (words), offset, limit
+ *   GET /api/reports/monthly?month=YYYY-MM
+ *   GET /api/reports/yearly?year=YYYY
+ *   GET /api/budget?month=YYYY-MM        or ?year=YYYY for the year's budget against spending
+ *   GET /api/goals
+ *   GET /api/stats
+ *   GET /api/export         CSV of the rows matching from, to, type and category
+ */
+public class LedgerServer {
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+    private static final int BACKLOG = 4096;
+
+    private final Ledger ledger;
+    private final Supplier<BudgetHistory> budgets;
+    private final Supplier<List<SavingsGoal>> goals;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public LedgerServer(Ledger ledger, Supplier<BudgetHistory> budgets,
+                        Supplier<List<SavingsGoal>> goals) {
+        this.ledger = ledger;
+        this.budgets = budgets;
+        this.goals = goals;
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.createContext("/api/", this::handle);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            server = null;
+        }
+    }
+
+    // A virtual thread per request where the runtime has them (Java 21+), otherwise a fixed pool
+    // whose queue absorbs bursts of connections; requests are short, so a few threads per core suffice
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            int threads = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+            return Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "ledger-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static boolean usesVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                status = 405;
+                body = error("only GET is supported");
+            } else {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                String path = exchange.getRequestURI().getPath();
+                if (path.endsWith("/") && path.length() > 1) {
+                    path = path.substring(0, path.length() - 1);
+                }
+                if (path.equals("/api/export")) {
+                    export(exchange, query);
+                    return;
+                }
+                body = route(path, query);
+                if (body == null) {
+                    status = 404;
+                    body = error("no such endpoint: " + exchange.getRequestURI().getPath());
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e.toString());
+            System.err.println("Error serving " + exchange.getRequestURI() + ": " + e);
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Returns null for an unknown path
+    private String route(String path, Map<String, String> query) {
+        JsonWriter json = new JsonWriter();
+        switch (path) {
+            case "/api/transactions":
+                transactions(json, query);
+                break;
+            case "/api/reports/monthly": {
+                YearMonth month = month(query);
+                TransactionStore snapshot = ledger.snapshot();
+                LedgerJson.report(json, snapshot, new ReportEngine(snapshot).computeMonth(month));
+                break;
+            }
+            case "/api/reports/yearly": {
+                int year = year(query);
+                TransactionStore snapshot = ledger.snapshot();
+                LedgerJson.report(json, snapshot, new ReportEngine(snapshot).computeYear(year));
+                break;
+            }
+            case "/api/budget":
+                budget(json, query);
+                break;
+            case "/api/goals":
+                ledger.read(live -> {
+                    LedgerJson.goals(json, goals.get());
+                    return null;
+                });
+                break;
+            case "/api/stats":
+                LedgerJson.stats(json, ledger.snapshot());
+                break;
+            default:
+                return null;
+        }
+        return json.toString();
+    }
+
+    // Streams the matching rows from a snapshot, so inserts carry on during a long download
+    private void export(HttpExchange exchange, Map<String, String> query) throws IOException {
+        TransactionFilter filter = filter(query);
+        TransactionStore snapshot = ledger.snapshot();
+        exchange.getResponseHeaders().set("Content-Type", "text/csv; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(
+                 new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 1 << 16)) {
+            new TransactionExporter(snapshot).write(writer, filter);
+        }
+    }
+
+    private TransactionFilter filter(Map<String, String> query) {
+        LocalDate from = query.containsKey("from") ? LocalDate.parse(query.get("from")) : null;
+        LocalDate to = query.containsKey("to") ? LocalDate.parse(query.get("to")) : null;
+        TransactionFilter filter = TransactionFilter.all().between(from, to);
+        if (query.containsKey("type")) {
+            String type = query.get("type");
+            if (!type.equalsIgnoreCase("income") && !type.equalsIgnoreCase("expense")) {
+                throw new IllegalArgumentException("type must be income or expense");
+            }
+            filter.ofType(TransactionStore.typeCode(type));
+        }
+        if (query.containsKey("category")) {
+            filter.inCategory(findCategory(query.get("category")));
+        }
+        return filter;
+    }
+
+    // Newest first. Without a search the date index is walked backwards over the range, so a
+    // page costs one pass over the range and no sort; a search starts from its matching rows.
+    private void transactions(JsonWriter json, Map<String, String> query) {
+        TransactionFilter filter = filter(query);
+        LocalDate from = query.containsKey("from") ? LocalDate.parse(query.get("from")) : null;
+        LocalDate to = query.containsKey("to") ? LocalDate.parse(query.get("to")) : null;
+        int offset = intParameter(query, "offset", 0);
+        int limit = Math.min(intParameter(query, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        String search = query.get("q");
+        boolean searching = search != null && !search.isBlank();
+
+        // The word index is only kept on the live store, so a search looks up its ids in the same
+        // read lock that takes the snapshot
+        int[][] matches = new int[1][];
+        TransactionStore store = ledger.read(live -> {
+            if (searching) {
+                matches[0] = live.getDescriptionIndex().search(search);
+            }
+            return ledger.snapshot();
+        });
+
+        int total = 0;
+        int[] page = new int[Math.min(limit, 256)];
+        int pageSize = 0;
+        if (searching) {
+            int[] rows = store.findRows(matches[0]);
+            store.sortByDateDescending(rows);
+            for (int row : rows) {
+                if (!filter.test(store, row)) continue;
+                if (total++ >= offset && pageSize < limit) {
+                    page = append(page, pageSize++, row, limit);
+                }
+            }
+        } else {
+            DateIndex index = store.getDateIndex();
+            int first = from != null ? index.positionOf((int) from.toEpochDay()) : 0;
+            int end = to != null ? index.positionOf((int) to.toEpochDay() + 1) : index.size();
+            if (!filter.hasRowFilter()) {
+                // Every position in the range matches, so the page is read off by position
+                total = Math.max(0, end - first);
+                for (long position = (long) end - 1 - offset; position >= first && pageSize < limit; position--) {
+                    page = append(page, pageSize++, index.rowAt((int) position), limit);
+                }
+            } else {
+                for (int position = end - 1; position >= first; position--) {
+                    int row = index.rowAt(position);
+                    if (!filter.test(store, row)) continue;
+                    if (total++ >= offset && pageSize < limit) {
+                        page = append(page, pageSize++, row, limit);
+                    }
+                }
+            }
+        }
+
+        json.beginObject()
+            .field("total", total)
+            .field("offset", offset)
+            .field("limit", limit);
+        json.name("transactions");
+        LedgerJson.transactions(json, store, Arrays.copyOf(page, pageSize));
+        json.endObject();
+    }
+
+    private static int[] append(int[] page, int size, int row, int limit) {
+        if (size == page.length) {
+            page = Arrays.copyOf(page, Math.min(limit, page.length * 2));
+        }
+        page[size] = row;
+        return page;
+    }
+
+    // Spending comes from a snapshot; the budgets themselves are read under the read lock
+    private void budget(JsonWriter json, Map<String, String> query) {
+        if (query.containsKey("year")) {
+            int year = year(query);
+            SpendingAggregates spending = ledger.snapshot().getAggregates();
+            BudgetComparison comparison = ledger.read(live -> budgets.get().compareYear(year, spending));
+            LedgerJson.budgetYear(json, comparison);
+        } else {
+            YearMonth month = month(query);
+            TransactionStore snapshot = ledger.snapshot();
+            ReportResult report = new ReportEngine(snapshot).computeMonth(month);
+            ledger.read(live -> {
+                LedgerJson.budget(json, month, budgets.get().getEffectiveBudget(month), report);
+                return null;
+            });
+        }
+    }
+
+    private static YearMonth month(Map<String, String> query) {
+        return query.containsKey("month") ? YearMonth.parse(query.get("month")) : YearMonth.now();
+    }
+
+    private static int year(Map<String, String> query) {
+        return intParameter(query, "year", LocalDate.now().getYear());
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    // The category registry is shared and safe to read from any thread
+    private int findCategory(String name) {
+        for (int id = 0; id < Category.size(); id++) {
+            if (Category.getName(id).equalsIgnoreCase(name)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String error(String message) {
+        return new JsonWriter().beginObject().field("error", message).endObject().toString();
+    }
+}
@@ -0,0 +1,224 @@
+package src;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/*
+ * Binary image of the whole ledger.
+ *
+ * Header:  magic (int) | version (int) | CRC32 of everything after the header (long)
+ * Body:    source file stamps (size, modified) used to detect stale snapshots
+ *          string dictionary: count, then length-prefixed UTF-8 entries
+ *          transactions: count, then 25-byte records
+ *              id | epochDay | cents | type | category string | description string
+ *          budgets: month count, then per month: epoch month, count,
+ *              then category string | amount in cents (long)
+ *          goals: count, then 36-byte records, amounts in cents
+ *              id | name string | target | current | startDay | targetDay | description string
+ */
+public class LedgerSnapshot {
+    private static final int MAGIC = 0x50464D53; // "PFMS"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 16;
+
+    private final File snapshotFile;
+    private final File[] sourceFiles;
+
+    private TransactionStore transactions;
+    private BudgetHistory budgets;
+    private List<SavingsGoal> goals;
+
+    public LedgerSnapshot(File snapshotFile, File... sourceFiles) {
+        this.snapshotFile = snapshotFile;
+        this.sourceFiles = sourceFiles;
+    }
+
+    public TransactionStore getTransactions() { return transactions; }
+    public BudgetHistory getBudgets() { return budgets; }
+    public List<SavingsGoal> getGoals() { return goals; }
+
+    public void write(TransactionStore transactions, BudgetHistory budgets, List<SavingsGoal> goals) throws IOException {
+        StringDictionary dictionary = new StringDictionary();
+        for (int row = 0; row < transactions.size(); row++) {
+            dictionary.add(transactions.getCategory(row));
+            dictionary.add(transactions.getDescription(row));
+        }
+        List<Budget> monthBudgets = budgets.getBudgets();
+        for (Budget budget : monthBudgets) {
+            for (int categoryId : budget.getBudgetedCategoryIds()) {
+                dictionary.add(Category.getName(categoryId));
+            }
+        }
+        for (SavingsGoal goal : goals) {
+            dictionary.add(goal.getName());
+            dictionary.add(goal.getDescription());
+        }
+
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                 new CheckedOutputStream(file, crc), 1 << 16))) {
+            // Header is rewritten with the real checksum once the body is known
+            file.write(new byte[HEADER_SIZE]);
+
+            for (File source : sourceFiles) {
+                out.writeLong(source.exists() ? source.length() : -1);
+                out.writeLong(source.exists() ? source.lastModified() : -1);
+            }
+
+            out.writeInt(dictionary.strings.size());
+            for (String value : dictionary.strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(transactions.size());
+            for (int row = 0; row < transactions.size(); row++) {
+                out.writeInt(transactions.getId(row));
+                out.writeInt(transactions.getEpochDay(row));
+                out.writeLong(transactions.getAmountCents(row));
+                out.writeByte(transactions.getType(row));
+                out.writeInt(dictionary.idOf(transactions.getCategory(row)));
+                out.writeInt(dictionary.idOf(transactions.getDescription(row)));
+            }
+
+            out.writeInt(monthBudgets.size());
+            for (Budget budget : monthBudgets) {
+                int[] budgetedIds = budget.getBudgetedCategoryIds();
+                out.writeInt(TransactionStore.epochMonth(budget.getBudgetMonth()));
+                out.writeInt(budgetedIds.length);
+                for (int categoryId : budgetedIds) {
+                    out.writeInt(dictionary.idOf(Category.getName(categoryId)));
+                    out.writeLong(budget.getBudgetCents(categoryId));
+                }
+            }
+
+            out.writeInt(goals.size());
+            for (SavingsGoal goal : goals) {
+                out.writeInt(goal.getId());
+                out.writeInt(dictionary.idOf(goal.getName()));
+                out.writeLong(goal.getTargetCents());
+                out.writeLong(goal.getCurrentCents());
+                out.writeInt((int) goal.getStartDate().toEpochDay());
+                out.writeInt((int) goal.getTargetDate().toEpochDay());
+                out.writeInt(dictionary.idOf(goal.getDescription()));
+            }
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(temp, "rw")) {
+            file.writeInt(MAGIC);
+            file.writeInt(VERSION);
+            file.writeLong(crc.getValue());
+        }
+        Files.move(temp.toPath(), snapshotFile.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns false when the snapshot is missing, corrupt or older than its source files
+    public boolean read() throws IOException {
+        if (!snapshotFile.exists()) return false;
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshotFile.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) return false;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return false;
+        long checksum = buffer.getLong();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != checksum) return false;
+
+        for (File source : sourceFiles) {
+            long length = buffer.getLong();
+            long modified = buffer.getLong();
+            long currentLength = source.exists() ? source.length() : -1;
+            long currentModified = source.exists() ? source.lastModified() : -1;
+            if (length != currentLength || modified != currentModified) return false;
+        }
+
+        String[] strings = new String[buffer.getInt()];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            buffer.get(scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int transactionCount = buffer.getInt();
+        TransactionStore store = new TransactionStore(transactionCount);
+        int[] categoryIds = new int[strings.length];
+        Arrays.fill(categoryIds, -1);
+        int maxTransactionId = 0;
+        for (int i = 0; i < transactionCount; i++) {
+            int id = buffer.getInt();
+            int epochDay = buffer.getInt();
+            long cents = buffer.getLong();
+            byte type = buffer.get();
+            int category = buffer.getInt();
+            String description = strings[buffer.getInt()];
+            if (categoryIds[category] < 0) {
+                categoryIds[category] = store.internCategory(strings[category]);
+            }
+            store.add(id, type, cents, categoryIds[category], description, epochDay);
+            maxTransactionId = Math.max(maxTransactionId, id);
+        }
+
+        BudgetHistory loadedBudgets = new BudgetHistory();
+        int monthCount = buffer.getInt();
+        for (int m = 0; m < monthCount; m++) {
+            Budget budget = loadedBudgets.getOrCreate(TransactionStore.toYearMonth(buffer.getInt()));
+            int budgetCount = buffer.getInt();
+            for (int i = 0; i < budgetCount; i++) {
+                String category = strings[buffer.getInt()];
+                budget.setBudgetCents(Category.intern(category), buffer.getLong());
+            }
+        }
+
+        int goalCount = buffer.getInt();
+        List<SavingsGoal> loadedGoals = new ArrayList<>(goalCount);
+        for (int i = 0; i < goalCount; i++) {
+            int id = buffer.getInt();
+            String name = strings[buffer.getInt()];
+            long target = buffer.getLong();
+            long current = buffer.getLong();
+            LocalDate startDate = LocalDate.ofEpochDay(buffer.getInt());
+            LocalDate targetDate = LocalDate.ofEpochDay(buffer.getInt());
+            String description = strings[buffer.getInt()];
+            loadedGoals.add(SavingsGoal.restore(id, name, target, current, startDate, targetDate, description));
+        }
+
+        Transaction.reserveId(maxTransactionId);
+        this.transactions = store;
+        this.budgets = loadedBudgets;
+        this.goals = loadedGoals;
+        return true;
+    }
+
+    private static class StringDictionary {
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        void add(String value) {
+            if (!ids.containsKey(value)) {
+                ids.put(value, strings.size());
+                strings.add(value);
+            }
+        }
+
+        int idOf(String value) {
+            return ids.get(value);
+        }
+    }
+}
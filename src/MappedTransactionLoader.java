@@ -0,0 +1,372 @@
+package src;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+public class MappedTransactionLoader {
+    // Largest region mapped at once; lines spanning a region boundary are re-read from the next one
+    private static final long MAX_WINDOW = 1L << 30;
+    // Smallest slice worth handing to another thread
+    private static final int MIN_PARALLEL_CHUNK = 1 << 20;
+
+    private final TransactionStore store;
+    private final CategoryTable categories = new CategoryTable();
+    private byte[] scratch = new byte[256];
+    private int maxId;
+    private int skippedRows;
+    // File offset of the mapped window, so recorded line offsets are absolute
+    private long windowPosition;
+    private TransactionPartitions partitions;
+
+    public MappedTransactionLoader(TransactionStore store) {
+        this.store = store;
+    }
+
+    public int getSkippedRows() { return skippedRows; }
+    public int getMaxId() { return maxId; }
+
+    // Notes where each month's rows start while parsing
+    public void recordPartitions(TransactionPartitions partitions) {
+        this.partitions = partitions;
+    }
+
+    public void load(Path file) throws IOException {
+        load(file, null);
+    }
+
+    // With a pool, each mapped window is split at newlines and the pieces parsed concurrently
+    public void load(Path file, ForkJoinPool pool) throws IOException {
+        load(file, 0, Long.MAX_VALUE, pool);
+    }
+
+    // Loads the lines in [from, to); from must be 0 (the header) or the start of a line
+    public void load(Path file, long from, long to, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = Math.min(to, channel.size());
+            long position = from;
+            boolean header = from == 0;
+
+            while (position < fileSize) {
+                long windowSize = Math.min(MAX_WINDOW, fileSize - position);
+                boolean lastWindow = position + windowSize == fileSize;
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                windowPosition = position;
+
+                int start = 0;
+                if (header) {
+                    start = nextLine(buffer, 0, (int) windowSize);
+                    header = false;
+                }
+                int end = lastWindow ? (int) windowSize : lastIndexOf(buffer, (byte) '\n', start, (int) windowSize) + 1;
+                if (end <= 0) {
+                    throw new IOException("Line longer than " + MAX_WINDOW + " bytes in " + file);
+                }
+
+                if (pool != null && end - start >= 2 * MIN_PARALLEL_CHUNK) {
+                    parseParallel(buffer, start, end, pool);
+                } else {
+                    parseRange(buffer, start, end);
+                }
+                position += end;
+            }
+        }
+        Transaction.reserveId(maxId);
+    }
+
+    private void parseParallel(ByteBuffer buffer, int start, int end, ForkJoinPool pool) {
+        int chunks = (int) Math.min(pool.getParallelism() * 4L, (end - start) / MIN_PARALLEL_CHUNK);
+        int chunkSize = (end - start) / chunks;
+
+        List<ForkJoinTask<MappedTransactionLoader>> tasks = new ArrayList<>(chunks);
+        int chunkStart = start;
+        for (int i = 0; i < chunks && chunkStart < end; i++) {
+            int chunkEnd = i == chunks - 1 ? end : nextLine(buffer, Math.max(chunkStart, start + (i + 1) * chunkSize), end);
+            int from = chunkStart;
+            tasks.add(pool.submit(() -> {
+                MappedTransactionLoader chunk = new MappedTransactionLoader(new TransactionStore((chunkEnd - from) / 48));
+                chunk.windowPosition = windowPosition;
+                chunk.partitions = partitions != null ? new TransactionPartitions() : null;
+                chunk.parseRange(buffer, from, chunkEnd);
+                return chunk;
+            }));
+            chunkStart = chunkEnd;
+        }
+
+        // Join in submission order so rows keep their file order
+        for (ForkJoinTask<MappedTransactionLoader> task : tasks) {
+            MappedTransactionLoader chunk = task.join();
+            store.appendAll(chunk.store);
+            maxId = Math.max(maxId, chunk.maxId);
+            skippedRows += chunk.skippedRows;
+            if (partitions != null) {
+                partitions.merge(chunk.partitions);
+            }
+        }
+    }
+
+    // Parses every line in [start, end); a final line without a newline is included
+    void parseRange(ByteBuffer buffer, int start, int end) {
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = indexOf(buffer, (byte) '\n', lineStart, end);
+            if (lineEnd < 0) {
+                lineEnd = end;
+            }
+            parseLine(buffer, lineStart, lineEnd);
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    private void parseLine(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') end--;
+        if (end <= start) return;
+
+        // id,type,amount,category,description,date - the description may itself contain commas
+        int c1 = indexOf(buffer, (byte) ',', start, end);
+        int c2 = c1 < 0 ? -1 : indexOf(buffer, (byte) ',', c1 + 1, end);
+        int c3 = c2 < 0 ? -1 : indexOf(buffer, (byte) ',', c2 + 1, end);
+        int c4 = c3 < 0 ? -1 : indexOf(buffer, (byte) ',', c3 + 1, end);
+        int c5 = c4 < 0 ? -1 : lastIndexOf(buffer, (byte) ',', c4 + 1, end);
+        if (c5 < 0) {
+            skippedRows++;
+            return;
+        }
+
+        long id = parseInt(buffer, start, c1);
+        long cents = parseCents(buffer, c2 + 1, c3);
+        int epochDay = parseEpochDay(buffer, c5 + 1, end);
+        if (id < 0 || cents == Long.MIN_VALUE || epochDay == Integer.MIN_VALUE) {
+            skippedRows++;
+            return;
+        }
+
+        byte type = (c2 > c1 + 1 && (buffer.get(c1 + 1) | 0x20) == 'i')
+                  ? TransactionStore.INCOME : TransactionStore.EXPENSE;
+        int categoryId = categories.intern(buffer, c3 + 1, c4);
+        String description = decode(buffer, c4 + 1, c5);
+
+        store.add((int) id, type, cents, categoryId, description, epochDay);
+        maxId = Math.max(maxId, (int) id);
+        if (partitions != null) {
+            partitions.record(TransactionStore.epochMonth(epochDay), windowPosition + start, (int) id);
+        }
+    }
+
+    // Field parsers return a sentinel instead of throwing so bad rows can be skipped cheaply
+    static long parseInt(ByteBuffer buffer, int start, int end) {
+        if (start >= end || end - start > 10) return -1;
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value <= Integer.MAX_VALUE ? value : -1;
+    }
+
+    static long parseCents(ByteBuffer buffer, int start, int end) {
+        if (start >= end) return Long.MIN_VALUE;
+        boolean negative = buffer.get(start) == '-';
+        int i = negative ? start + 1 : start;
+
+        long units = 0;
+        int digits = 0;
+        for (; i < end && buffer.get(i) != '.'; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || ++digits > 16) return parseCentsSlow(buffer, start, end);
+            units = units * 10 + digit;
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        for (i = i + 1; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return parseCentsSlow(buffer, start, end);
+            if (fractionDigits < 2) {
+                fraction = fraction * 10 + digit;
+                fractionDigits++;
+            } else if (fractionDigits == 2) {
+                roundUp = digit >= 5;
+                fractionDigits++;
+            }
+        }
+        // "-", "." and "-." have no digits at all and are rejected like any other bad amount
+        if (digits == 0 && fractionDigits == 0) return Long.MIN_VALUE;
+        if (fractionDigits == 1) fraction *= 10;
+
+        long cents = units * 100 + fraction + (roundUp ? 1 : 0);
+        return negative ? -cents : cents;
+    }
+
+    private static long parseCentsSlow(ByteBuffer buffer, int start, int end) {
+        try {
+            return Money.parse(ascii(buffer, start, end));
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // Reads yyyy-MM-dd straight into an epoch day, validating the calendar date
+    static int parseEpochDay(ByteBuffer buffer, int start, int end) {
+        if (end - start != 10 || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+            return parseEpochDaySlow(buffer, start, end);
+        }
+        int year = digits(buffer, start, 4);
+        int month = digits(buffer, start + 5, 2);
+        int day = digits(buffer, start + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return Integer.MIN_VALUE;
+        }
+        return epochDay(year, month, day);
+    }
+
+    private static int parseEpochDaySlow(ByteBuffer buffer, int start, int end) {
+        try {
+            return (int) LocalDate.parse(ascii(buffer, start, end).trim()).toEpochDay();
+        } catch (RuntimeException e) {
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        copy(buffer, start, scratch, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static String ascii(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        copy(buffer, start, bytes, bytes.length);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void copy(ByteBuffer buffer, int start, byte[] target, int length) {
+        for (int i = 0; i < length; i++) {
+            target[i] = buffer.get(start + i);
+        }
+    }
+
+    static int nextLine(ByteBuffer buffer, int start, int end) {
+        int newline = indexOf(buffer, (byte) '\n', start, end);
+        return newline < 0 ? end : newline + 1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte value, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (buffer.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    // Maps raw category bytes to store ids so repeated names never become Strings
+    private class CategoryTable {
+        private byte[][] keys = new byte[32][];
+        private int[] values = new int[32];
+        private int count;
+
+        int intern(ByteBuffer buffer, int start, int end) {
+            int length = end - start;
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+
+            int mask = keys.length - 1;
+            int slot = mix(hash) & mask;
+            while (keys[slot] != null) {
+                if (matches(keys[slot], buffer, start, length)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] key = new byte[length];
+            copy(buffer, start, key, length);
+            int id = store.internCategory(new String(key, StandardCharsets.UTF_8));
+            keys[slot] = key;
+            values[slot] = id;
+            if (++count * 2 > keys.length) {
+                resize();
+            }
+            return id;
+        }
+
+        private boolean matches(byte[] key, ByteBuffer buffer, int start, int length) {
+            if (key.length != length) return false;
+            for (int i = 0; i < length; i++) {
+                if (key[i] != buffer.get(start + i)) return false;
+            }
+            return true;
+        }
+
+        private void resize() {
+            byte[][] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null) continue;
+                int slot = mix(Arrays.hashCode(oldKeys[i])) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+
+        private int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package src;
+
+// Amounts are carried as long cents; these helpers convert at the edges without boxing
+public final class Money {
+    // Longest digit run that cannot overflow a long once scaled to cents
+    private static final int MAX_DIGITS = 16;
+
+    private Money() {
+    }
+
+    public static long fromDouble(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    // Parses "123", "-4.5", "$1,234.56"; digits past the cents are rounded half up
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length && text.charAt(i) == ' ') i++;
+        while (length > i && text.charAt(length - 1) == ' ') length--;
+
+        boolean negative = false;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i < length && text.charAt(i) == '$') i++;
+
+        long units = 0;
+        int digits = 0;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                units = units * 10 + (c - '0');
+                digits++;
+            } else if (c != ',' || digits == 0) {
+                break;
+            }
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (i < length && text.charAt(i) == '.') {
+            for (i++; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') break;
+                if (fractionDigits < 2) {
+                    fraction = fraction * 10 + (c - '0');
+                } else if (fractionDigits == 2) {
+                    roundUp = c >= '5';
+                }
+                fractionDigits++;
+            }
+        }
+
+        if (i != length || digits + fractionDigits == 0 || digits > MAX_DIGITS) {
+            // Exponents and other forms Double accepts go through the slow path
+            return fromDouble(Double.parseDouble(text.toString().replace("$", "").replace(",", "")));
+        }
+
+        if (fractionDigits == 1) fraction *= 10;
+        long cents = units * 100 + fraction + (roundUp ? 1 : 0);
+        return negative ? -cents : cents;
+    }
+
+    public static String format(long cents) {
+        return append(new StringBuilder(24), cents).toString();
+    }
+
+    // Appends "-1234.56" style text, the layout used in every data file
+    public static StringBuilder append(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            if (cents == Long.MIN_VALUE) {
+                return sb.append(-(cents / 100)).append(".0").append(-(cents % 100));
+            }
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (fraction < 10) sb.append('0');
+        return sb.append(fraction);
+    }
+
+    // part as a percentage of whole, 0 when whole is not positive
+    public static double percent(long part, long whole) {
+        return whole > 0 ? part * 100.0 / whole : 0;
+    }
+}
@@ -0,0 +1,143 @@
+package src;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ReportCache implements TransactionListener {
+    public static final int MONTHLY = 0;
+    public static final int YEARLY = 1;
+    public static final int SUMMARY = 2;
+
+    private static final long DEFAULT_MAX_CHARS = 1 << 20;
+
+    // Every mutation takes the next version and stamps the epoch month it touched;
+    // an entry is stale once any month in its range carries a newer stamp
+    private long version;
+    private int firstMonth;
+    private long[] monthVersions = new long[0];
+
+    // Access-ordered so iteration starts at the least recently used entry
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxChars;
+    private long cachedChars;
+    private long hits;
+    private long misses;
+
+    public ReportCache() {
+        this(DEFAULT_MAX_CHARS);
+    }
+
+    public ReportCache(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    // Returns the rendered report, or null when it is missing or out of date
+    public String get(int kind, int firstMonth, int lastMonth, long budgetVersion) {
+        Long key = key(kind, firstMonth);
+        Entry entry = entries.get(key);
+        if (entry == null || entry.lastMonth != lastMonth || entry.budgetVersion != budgetVersion
+                || changedSince(firstMonth, lastMonth, entry.version)) {
+            if (entry != null) {
+                remove(key);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.text;
+    }
+
+    public void put(int kind, int firstMonth, int lastMonth, long budgetVersion, String text) {
+        if (text.length() > maxChars) return;
+
+        Long key = key(kind, firstMonth);
+        remove(key);
+        entries.put(key, new Entry(lastMonth, budgetVersion, version, text));
+        cachedChars += text.length();
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (cachedChars > maxChars && eldest.hasNext()) {
+            cachedChars -= eldest.next().text.length();
+            eldest.remove();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        cachedChars = 0;
+    }
+
+    public int size() { return entries.size(); }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+    // Listener hooks only stamp the touched months; entries are checked lazily
+    @Override
+    public void transactionAdded(TransactionStore store, int row) {
+        touch(TransactionStore.epochMonth(store.getEpochDay(row)));
+    }
+
+    @Override
+    public void transactionUpdated(TransactionStore store, int row, Transaction previous) {
+        touch(TransactionStore.epochMonth((int) previous.getDate().toEpochDay()));
+        touch(TransactionStore.epochMonth(store.getEpochDay(row)));
+    }
+
+    @Override
+    public void transactionRemoved(TransactionStore store, int row) {
+        touch(TransactionStore.epochMonth(store.getEpochDay(row)));
+    }
+
+    private void touch(int month) {
+        version++;
+        if (monthVersions.length == 0) {
+            firstMonth = month;
+            monthVersions = new long[1];
+        } else if (month < firstMonth) {
+            int shift = firstMonth - month;
+            long[] grown = new long[monthVersions.length + shift];
+            System.arraycopy(monthVersions, 0, grown, shift, monthVersions.length);
+            monthVersions = grown;
+            firstMonth = month;
+        } else if (month - firstMonth >= monthVersions.length) {
+            monthVersions = Arrays.copyOf(monthVersions, month - firstMonth + 1);
+        }
+        monthVersions[month - firstMonth] = version;
+    }
+
+    private boolean changedSince(int fromMonth, int toMonth, long since) {
+        int from = Math.max(fromMonth - firstMonth, 0);
+        int to = Math.min(toMonth - firstMonth, monthVersions.length - 1);
+        for (int i = from; i <= to; i++) {
+            if (monthVersions[i] > since) return true;
+        }
+        return false;
+    }
+
+    private void remove(Long key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            cachedChars -= entry.text.length();
+        }
+    }
+
+    private static Long key(int kind, int firstMonth) {
+        return ((long) kind << 32) | (firstMonth & 0xFFFFFFFFL);
+    }
+
+    private static class Entry {
+        final int lastMonth;
+        final long budgetVersion;
+        final long version;
+        final String text;
+
+        Entry(int lastMonth, long budgetVersion, long version, String text) {
+            this.lastMonth = lastMonth;
+            this.budgetVersion = budgetVersion;
+            this.version = version;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package src;
+
+import java.time.YearMonth;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Computes every figure a report needs in a single date-ordered pass over the period
+public class ReportEngine {
+    // Smallest slice of the date index worth handing to another worker
+    private static final int MIN_PARALLEL_CHUNK = 1 << 16;
+
+    private final TransactionStore store;
+    private final ForkJoinPool pool;
+
+    public ReportEngine(TransactionStore store) {
+        this(store, null);
+    }
+
+    // With a pool, large periods are split into chunks whose partial results are merged.
+    // All sums are in cents, so the totals are identical to the sequential pass
+    public ReportEngine(TransactionStore store, ForkJoinPool pool) {
+        this.store = store;
+        this.pool = pool;
+    }
+
+    public ReportResult computeMonth(YearMonth month) {
+        int epochMonth = TransactionStore.epochMonth(month);
+        return compute(epochMonth, epochMonth);
+    }
+
+    public ReportResult computeYear(int year) {
+        int firstMonth = TransactionStore.epochMonth(YearMonth.of(year, 1));
+        return compute(firstMonth, firstMonth + 11);
+    }
+
+    // Inclusive range of epoch months
+    public ReportResult compute(int firstMonth, int lastMonth) {
+        DateIndex index = store.getDateIndex();
+        int from = index.positionOf(monthStart(firstMonth));
+        int to = index.positionOf(monthStart(lastMonth + 1));
+
+        if (pool != null && to - from >= 2 * MIN_PARALLEL_CHUNK) {
+            return pool.invoke(new ChunkTask(index, firstMonth, lastMonth, from, to));
+        }
+
+        ReportResult result = newResult(firstMonth, lastMonth);
+        accumulate(result, index, from, to);
+        return result;
+    }
+
+    private ReportResult newResult(int firstMonth, int lastMonth) {
+        return new ReportResult(firstMonth, lastMonth - firstMonth + 1, store.getCategoryCount());
+    }
+
+    // Adds the date index positions [from, to) to the result
+    void accumulate(ReportResult result, DateIndex index, int from, int to) {
+        if (from >= to) return;
+
+        int firstMonth = TransactionStore.epochMonth(result.getFirstMonth());
+        int monthIndex = TransactionStore.epochMonth(index.dayAt(from)) - firstMonth;
+        int nextMonthStart = monthStart(firstMonth + monthIndex + 1);
+
+        for (int position = from; position < to; position++) {
+            // Positions are date ordered, so month changes only move forward
+            while (index.dayAt(position) >= nextMonthStart) {
+                monthIndex++;
+                nextMonthStart = monthStart(firstMonth + monthIndex + 1);
+            }
+
+            int row = index.rowAt(position);
+            if (store.getType(row) == TransactionStore.INCOME) {
+                result.addIncome(monthIndex, store.getAmountCents(row));
+            } else {
+                result.addExpense(monthIndex, store.getCategoryId(row), store.getAmountCents(row));
+            }
+        }
+    }
+
+    static int monthStart(int epochMonth) {
+        return MappedTransactionLoader.epochDay(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1, 1);
+    }
+
+    private class ChunkTask extends RecursiveTask<ReportResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final DateIndex index;
+        private final int firstMonth;
+        private final int lastMonth;
+        private final int from;
+        private final int to;
+
+        ChunkTask(DateIndex index, int firstMonth, int lastMonth, int from, int to) {
+            this.index = index;
+            this.firstMonth = firstMonth;
+            this.lastMonth = lastMonth;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ReportResult compute() {
+            if (to - from < 2 * MIN_PARALLEL_CHUNK) {
+                ReportResult result = newResult(firstMonth, lastMonth);
+                accumulate(result, index, from, to);
+                return result;
+            }
+
+            int middle = (from + to) >>> 1;
+            ChunkTask right = new ChunkTask(index, firstMonth, lastMonth, middle, to);
+            right.fork();
+            ReportResult result = new ChunkTask(index, firstMonth, lastMonth, from, middle).compute();
+            result.merge(right.join());
+            return result;
+        }
+    }
+}
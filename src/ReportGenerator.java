@@ -1,193 +1,221 @@
 package src;
 
-import java.time.LocalDate;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class ReportGenerator {
-    private List<Transaction> transactions;
-    private Budget currentBudget;
+    private TransactionStore transactions;
+    // Fetched when a report needs it, so lazily loaded budgets are not read for the summary
+    private final Supplier<BudgetHistory> budgets;
+    private final ReportCache cache = new ReportCache();
+    private final ReportEngine engine;
+
+    public ReportGenerator(TransactionStore transactions, BudgetHistory budgets) {
+        this(transactions, () -> budgets);
+    }
 
-    public ReportGenerator(List<Transaction> transactions, Budget budget) {
+    public ReportGenerator(TransactionStore transactions, Supplier<BudgetHistory> budgets) {
         this.transactions = transactions;
-        this.currentBudget = budget;
+        this.engine = new ReportEngine(transactions,
+            Boolean.getBoolean("finance.parallelReports") ? ForkJoinPool.commonPool() : null);
+        this.budgets = budgets;
+        transactions.addListener(cache);
+    }
+
+    public ReportCache getCache() {
+        return cache;
     }
 
     public void generateMonthlyReport(YearMonth month) {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("         MONTHLY FINANCIAL REPORT");
-        System.out.println("              " + month.format(DateTimeFormatter.ofPattern("MMMM yyyy")));
-        System.out.println("=".repeat(50));
+        int epochMonth = TransactionStore.epochMonth(month);
+        System.out.print(cached(ReportCache.MONTHLY, epochMonth, epochMonth, budgetVersion(),
+                                out -> renderMonthlyReport(month, out)));
+    }
 
-        List<Transaction> monthlyTransactions = getTransactionsForMonth(month);
+    public void generateYearlyReport(int year) {
+        int firstMonth = TransactionStore.epochMonth(YearMonth.of(year, 1));
+        System.out.print(cached(ReportCache.YEARLY, firstMonth, firstMonth + 11, budgetVersion(),
+                                out -> renderYearlyReport(year, out)));
+    }
 
-        double totalIncome = calculateTotalIncome(monthlyTransactions);
-        double totalExpenses = calculateTotalExpenses(monthlyTransactions);
-        double netSavings = totalIncome - totalExpenses;
+    public void generateQuickSummary() {
+        YearMonth currentMonth = YearMonth.now();
+        int epochMonth = TransactionStore.epochMonth(currentMonth);
+        System.out.print(cached(ReportCache.SUMMARY, epochMonth, epochMonth, 0,
+                                out -> renderQuickSummary(currentMonth, out)));
+    }
 
-        System.out.printf("Total Income:     $%,10.2f\n", totalIncome);
-        System.out.printf("Total Expenses:   $%,10.2f\n", totalExpenses);
-        System.out.println("-".repeat(30));
-        System.out.printf("Net Savings:      $%,10.2f\n", netSavings);
+    private long budgetVersion() {
+        BudgetHistory history = budgets.get();
+        return history != null ? history.getVersion() : -1;
+    }
+
+    // Renders into a string on a cache miss; repeated views reuse the text
+    private String cached(int kind, int firstMonth, int lastMonth, long budgetVersion,
+                          Consumer<PrintStream> renderer) {
+        String report = cache.get(kind, firstMonth, lastMonth, budgetVersion);
+        if (report == null) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+            PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+            renderer.accept(out);
+            out.flush();
+            report = buffer.toString(StandardCharsets.UTF_8);
+            cache.put(kind, firstMonth, lastMonth, budgetVersion, report);
+        }
+        return report;
+    }
+
+    private void renderMonthlyReport(YearMonth month, PrintStream out) {
+        ReportResult result = engine.computeMonth(month);
+
+        out.println("\n" + "=".repeat(50));
+        out.println("         MONTHLY FINANCIAL REPORT");
+        out.println("              " + month.format(DateTimeFormatter.ofPattern("MMMM yyyy")));
+        out.println("=".repeat(50));
+
+        long totalIncome = result.getIncomeCents();
+        long totalExpenses = result.getExpenseCents();
+        long netSavings = totalIncome - totalExpenses;
+
+        out.printf("Total Income:     $%,10.2f\n", Money.toDouble(totalIncome));
+        out.printf("Total Expenses:   $%,10.2f\n", Money.toDouble(totalExpenses));
+        out.println("-".repeat(30));
+        out.printf("Net Savings:      $%,10.2f\n", Money.toDouble(netSavings));
 
         if (netSavings < 0) {
-            System.out.println("⚠️  Warning: You spent more than you earned this month!");
+            out.println("⚠️  Warning: You spent more than you earned this month!");
         }
 
-        generateCategoryBreakdown(monthlyTransactions);
-        generateBudgetComparison(monthlyTransactions, month);
+        printCategoryBreakdown(result, out);
+        printBudgetComparison(result, month, out);
     }
 
-    public void generateYearlyReport(int year) {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("         YEARLY FINANCIAL REPORT");
-        System.out.println("                   " + year);
-        System.out.println("=".repeat(50));
+    private void renderYearlyReport(int year, PrintStream out) {
+        ReportResult result = engine.computeYear(year);
 
-        List<Transaction> yearlyTransactions = getTransactionsForYear(year);
+        out.println("\n" + "=".repeat(50));
+        out.println("         YEARLY FINANCIAL REPORT");
+        out.println("                   " + year);
+        out.println("=".repeat(50));
 
-        double totalIncome = calculateTotalIncome(yearlyTransactions);
-        double totalExpenses = calculateTotalExpenses(yearlyTransactions);
-        double netSavings = totalIncome - totalExpenses;
+        long totalIncome = result.getIncomeCents();
+        long totalExpenses = result.getExpenseCents();
+        long netSavings = totalIncome - totalExpenses;
 
-        System.out.printf("Total Income:     $%,10.2f\n", totalIncome);
-        System.out.printf("Total Expenses:   $%,10.2f\n", totalExpenses);
-        System.out.println("-".repeat(30));
-        System.out.printf("Net Savings:      $%,10.2f\n", netSavings);
+        out.printf("Total Income:     $%,10.2f\n", Money.toDouble(totalIncome));
+        out.printf("Total Expenses:   $%,10.2f\n", Money.toDouble(totalExpenses));
+        out.println("-".repeat(30));
+        out.printf("Net Savings:      $%,10.2f\n", Money.toDouble(netSavings));
 
         if (totalIncome > 0) {
-            double savingsRate = (netSavings / totalIncome) * 100;
-            System.out.printf("Savings Rate:     %10.1f%%\n", savingsRate);
+            out.printf("Savings Rate:     %10.1f%%\n", Money.percent(netSavings, totalIncome));
         }
 
-        generateMonthlyTrends(yearlyTransactions, year);
-        generateCategoryBreakdown(yearlyTransactions);
+        printMonthlyTrends(result, out);
+        printCategoryBreakdown(result, out);
+        printYearlyBudgetComparison(year, out);
     }
 
-    private void generateCategoryBreakdown(List<Transaction> transactions) {
-        System.out.println("\n--- EXPENSE BREAKDOWN BY CATEGORY ---");
-
-        Map<String, Double> expensesByCategory = transactions.stream()
-            .filter(t -> t.getType().equals("EXPENSE"))
-            .collect(Collectors.groupingBy(
-                Transaction::getCategory,
-                Collectors.summingDouble(Transaction::getAmount)
-            ));
+    private void printCategoryBreakdown(ReportResult result, PrintStream out) {
+        out.println("\n--- EXPENSE BREAKDOWN BY CATEGORY ---");
 
-        double totalExpenses = expensesByCategory.values().stream()
-                                               .mapToDouble(Double::doubleValue).sum();
-
-        expensesByCategory.entrySet().stream()
-            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
-            .forEach(entry -> {
-                double percentage = totalExpenses > 0 ? (entry.getValue() / totalExpenses) * 100 : 0;
-                System.out.printf("%-20s $%,8.2f (%5.1f%%)\n", 
-                                entry.getKey(), entry.getValue(), percentage);
-            });
+        long totalExpenses = result.getExpenseCents();
+        for (int categoryId : result.getCategoriesBySpending()) {
+            long cents = result.getCategoryExpenseCents(categoryId);
+            out.printf("%-20s $%,8.2f (%5.1f%%)\n", 
+                       transactions.getCategoryName(categoryId), Money.toDouble(cents),
+                       Money.percent(cents, totalExpenses));
+        }
     }
 
-    private void generateBudgetComparison(List<Transaction> transactions, YearMonth month) {
-        if (currentBudget == null || !currentBudget.getBudgetMonth().equals(month)) {
+    // Uses the month's own budget or the one carried forward from an earlier month
+    private void printBudgetComparison(ReportResult result, YearMonth month, PrintStream out) {
+        BudgetHistory history = budgets.get();
+        Budget currentBudget = history != null ? history.getEffectiveBudget(month) : null;
+        if (currentBudget == null || currentBudget.isEmpty()) {
             return;
         }
 
-        System.out.println("\n--- BUDGET vs ACTUAL SPENDING ---");
-
-        Map<String, Double> actualSpending = transactions.stream()
-            .filter(t -> t.getType().equals("EXPENSE"))
-            .collect(Collectors.groupingBy(
-                Transaction::getCategory,
-                Collectors.summingDouble(Transaction::getAmount)
-            ));
+        out.println("\n--- BUDGET vs ACTUAL SPENDING ---");
 
-        for (Map.Entry<String, Double> budget : currentBudget.getAllBudgets().entrySet()) {
-            String category = budget.getKey();
-            double budgeted = budget.getValue();
-            double actual = actualSpending.getOrDefault(category, 0.0);
-            double remaining = budgeted - actual;
-            double percentage = budgeted > 0 ? (actual / budgeted) * 100 : 0;
+        for (int categoryId : currentBudget.getBudgetedCategoryIds()) {
+            String category = Category.getName(categoryId);
+            long budgeted = currentBudget.getBudgetCents(categoryId);
+            long actual = result.getCategoryExpenseCents(categoryId);
+            long remaining = budgeted - actual;
 
             String status = remaining >= 0 ? "✓" : "⚠️";
-            System.out.printf("%-20s %s Budget: $%,7.2f | Spent: $%,7.2f | Remaining: $%,7.2f (%5.1f%%)\n",
-                            category, status, budgeted, actual, remaining, percentage);
+            out.printf("%-20s %s Budget: $%,7.2f | Spent: $%,7.2f | Remaining: $%,7.2f (%5.1f%%)\n",
+                       category, status, Money.toDouble(budgeted), Money.toDouble(actual),
+                       Money.toDouble(remaining), Money.percent(actual, budgeted));
         }
     }
 
-    private void generateMonthlyTrends(List<Transaction> transactions, int year) {
-        System.out.println("\n--- MONTHLY TRENDS ---");
+    private void printYearlyBudgetComparison(int year, PrintStream out) {
+        BudgetHistory history = budgets.get();
+        if (history == null || history.isEmpty()) {
+            return;
+        }
+        BudgetComparison comparison = history.compareYear(year, transactions.getAggregates());
+        int[] categoryIds = comparison.getCategoryIds();
+        if (categoryIds.length == 0) {
+            return;
+        }
 
-        Map<YearMonth, Double> monthlyIncome = new HashMap<>();
-        Map<YearMonth, Double> monthlyExpenses = new HashMap<>();
+        out.println("\n--- BUDGET vs ACTUAL FOR THE YEAR ---");
+        for (int categoryId : categoryIds) {
+            long budgeted = comparison.getYearBudgetCents(categoryId);
+            long actual = comparison.getYearActualCents(categoryId);
+            int monthsOver = comparison.getMonthsOverBudget(categoryId);
 
-        for (Transaction t : transactions) {
-            YearMonth month = YearMonth.from(t.getDate());
-            if (t.getType().equals("INCOME")) {
-                monthlyIncome.merge(month, t.getAmount(), Double::sum);
-            } else {
-                monthlyExpenses.merge(month, t.getAmount(), Double::sum);
-            }
+            String status = actual <= budgeted ? "✓" : "⚠️";
+            out.printf("%-20s %s Budget: $%,9.2f | Spent: $%,9.2f (%5.1f%%) | Months over: %d\n",
+                       Category.getName(categoryId), status, Money.toDouble(budgeted),
+                       Money.toDouble(actual), Money.percent(actual, budgeted), monthsOver);
         }
+    }
+
+    private void printMonthlyTrends(ReportResult result, PrintStream out) {
+        out.println("\n--- MONTHLY TRENDS ---");
 
-        System.out.printf("%-10s %12s %12s %12s\n", "Month", "Income", "Expenses", "Savings");
-        System.out.println("-".repeat(50));
+        out.printf("%-10s %12s %12s %12s\n", "Month", "Income", "Expenses", "Savings");
+        out.println("-".repeat(50));
 
-        for (int month = 1; month <= 12; month++) {
-            YearMonth ym = YearMonth.of(year, month);
-            double income = monthlyIncome.getOrDefault(ym, 0.0);
-            double expenses = monthlyExpenses.getOrDefault(ym, 0.0);
-            double savings = income - expenses;
+        for (int i = 0; i < result.getMonthCount(); i++) {
+            long income = result.getMonthIncomeCents(i);
+            long expenses = result.getMonthExpenseCents(i);
 
             if (income > 0 || expenses > 0) {
-                System.out.printf("%-10s $%,10.2f $%,10.2f $%,10.2f\n",
-                                ym.format(DateTimeFormatter.ofPattern("MMM yyyy")),
-                                income, expenses, savings);
+                out.printf("%-10s $%,10.2f $%,10.2f $%,10.2f\n",
+                           result.getMonth(i).format(DateTimeFormatter.ofPattern("MMM yyyy")),
+                           Money.toDouble(income), Money.toDouble(expenses), Money.toDouble(income - expenses));
             }
         }
     }
 
-    private List<Transaction> getTransactionsForMonth(YearMonth month) {
-        return transactions.stream()
-            .filter(t -> YearMonth.from(t.getDate()).equals(month))
-            .collect(Collectors.toList());
+    private long getMonthTotal(YearMonth month, byte type) {
+        return transactions.getAggregates().getMonthTotal(month, type);
     }
 
-    private List<Transaction> getTransactionsForYear(int year) {
-        return transactions.stream()
-            .filter(t -> t.getDate().getYear() == year)
-            .collect(Collectors.toList());
-    }
-
-    private double calculateTotalIncome(List<Transaction> transactions) {
-        return transactions.stream()
-            .filter(t -> t.getType().equals("INCOME"))
-            .mapToDouble(Transaction::getAmount)
-            .sum();
-    }
-
-    private double calculateTotalExpenses(List<Transaction> transactions) {
-        return transactions.stream()
-            .filter(t -> t.getType().equals("EXPENSE"))
-            .mapToDouble(Transaction::getAmount)
-            .sum();
-    }
-
-    public void generateQuickSummary() {
-        YearMonth currentMonth = YearMonth.now();
-        List<Transaction> monthlyTransactions = getTransactionsForMonth(currentMonth);
-
-        double monthlyIncome = calculateTotalIncome(monthlyTransactions);
-        double monthlyExpenses = calculateTotalExpenses(monthlyTransactions);
-        double currentBalance = monthlyIncome - monthlyExpenses;
+    private void renderQuickSummary(YearMonth currentMonth, PrintStream out) {
+        long monthlyIncome = getMonthTotal(currentMonth, TransactionStore.INCOME);
+        long monthlyExpenses = getMonthTotal(currentMonth, TransactionStore.EXPENSE);
+        long currentBalance = monthlyIncome - monthlyExpenses;
 
-        System.out.println("\n=== CURRENT MONTH SUMMARY ===");
-        System.out.printf("Income:   $%,8.2f\n", monthlyIncome);
-        System.out.printf("Expenses: $%,8.2f\n", monthlyExpenses);
-        System.out.printf("Balance:  $%,8.2f\n", currentBalance);
+        out.println("\n=== CURRENT MONTH SUMMARY ===");
+        out.printf("Income:   $%,8.2f\n", Money.toDouble(monthlyIncome));
+        out.printf("Expenses: $%,8.2f\n", Money.toDouble(monthlyExpenses));
+        out.printf("Balance:  $%,8.2f\n", Money.toDouble(currentBalance));
 
         if (currentBalance < 0) {
-            System.out.println("💡 Tip: Consider reviewing your expenses to improve your financial situation.");
+            out.println("💡 Tip: Consider reviewing your expenses to improve your financial situation.");
         }
     }
 }
\ No newline at end of file
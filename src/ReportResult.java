@@ -0,0 +1,107 @@
+package src;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Figures for one reporting period, in cents; filled by ReportEngine and read by printers
+public class ReportResult {
+    private final int firstMonth;
+    private final long[] monthlyIncome;
+    private final long[] monthlyExpenses;
+    private long[] expensesByCategory;
+    private int transactionCount;
+
+    ReportResult(int firstMonth, int monthCount, int categoryCount) {
+        this.firstMonth = firstMonth;
+        this.monthlyIncome = new long[monthCount];
+        this.monthlyExpenses = new long[monthCount];
+        this.expensesByCategory = new long[categoryCount];
+    }
+
+    void addIncome(int monthIndex, long cents) {
+        monthlyIncome[monthIndex] += cents;
+        transactionCount++;
+    }
+
+    void addExpense(int monthIndex, int categoryId, long cents) {
+        monthlyExpenses[monthIndex] += cents;
+        if (categoryId >= expensesByCategory.length) {
+            expensesByCategory = Arrays.copyOf(expensesByCategory, Math.max(categoryId + 1, expensesByCategory.length * 2));
+        }
+        expensesByCategory[categoryId] += cents;
+        transactionCount++;
+    }
+
+    // Folds a partial result over the same period into this one
+    void merge(ReportResult other) {
+        for (int i = 0; i < monthlyIncome.length; i++) {
+            monthlyIncome[i] += other.monthlyIncome[i];
+            monthlyExpenses[i] += other.monthlyExpenses[i];
+        }
+        if (other.expensesByCategory.length > expensesByCategory.length) {
+            expensesByCategory = Arrays.copyOf(expensesByCategory, other.expensesByCategory.length);
+        }
+        for (int i = 0; i < other.expensesByCategory.length; i++) {
+            expensesByCategory[i] += other.expensesByCategory[i];
+        }
+        transactionCount += other.transactionCount;
+    }
+
+    public YearMonth getFirstMonth() {
+        return TransactionStore.toYearMonth(firstMonth);
+    }
+
+    public int getMonthCount() {
+        return monthlyIncome.length;
+    }
+
+    public YearMonth getMonth(int index) {
+        return TransactionStore.toYearMonth(firstMonth + index);
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public long getIncomeCents() {
+        long total = 0;
+        for (long cents : monthlyIncome) total += cents;
+        return total;
+    }
+
+    public long getExpenseCents() {
+        long total = 0;
+        for (long cents : monthlyExpenses) total += cents;
+        return total;
+    }
+
+    public long getNetCents() {
+        return getIncomeCents() - getExpenseCents();
+    }
+
+    public long getMonthIncomeCents(int index) {
+        return monthlyIncome[index];
+    }
+
+    public long getMonthExpenseCents(int index) {
+        return monthlyExpenses[index];
+    }
+
+    public long getCategoryExpenseCents(int categoryId) {
+        return categoryId >= 0 && categoryId < expensesByCategory.length ? expensesByCategory[categoryId] : 0;
+    }
+
+    // Category ids with any spending, largest first; ties keep id order
+    public List<Integer> getCategoriesBySpending() {
+        List<Integer> categories = new ArrayList<>();
+        for (int categoryId = 0; categoryId < expensesByCategory.length; categoryId++) {
+            if (expensesByCategory[categoryId] != 0) {
+                categories.add(categoryId);
+            }
+        }
+        categories.sort((a, b) -> Long.compare(expensesByCategory[b], expensesByCategory[a]));
+        return categories;
+    }
+}
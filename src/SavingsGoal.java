@@ -2,22 +2,23 @@ package src;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SavingsGoal {
-    private static int nextId = 1;
+    private static final AtomicInteger nextId = new AtomicInteger(1);
     private int id;
     private String name;
-    private double targetAmount;
-    private double currentAmount;
+    private long targetCents;
+    private long currentCents;
     private LocalDate startDate;
     private LocalDate targetDate;
     private String description;
 
     public SavingsGoal(String name, double targetAmount, LocalDate targetDate, String description) {
-        this.id = nextId++;
+        this.id = nextId.getAndIncrement();
         this.name = name;
-        this.targetAmount = targetAmount;
-        this.currentAmount = 0.0;
+        this.targetCents = Money.fromDouble(targetAmount);
+        this.currentCents = 0;
         this.startDate = LocalDate.now();
         this.targetDate = targetDate;
         this.description = description;
@@ -27,40 +28,67 @@ public class SavingsGoal {
         this(name, targetAmount, targetDate, "");
     }
 
+    // For goals read from storage, which already have an id
+    private SavingsGoal(int id, String name, long targetCents, long currentCents,
+                        LocalDate startDate, LocalDate targetDate, String description) {
+        this.id = id;
+        this.name = name;
+        this.targetCents = targetCents;
+        this.currentCents = currentCents;
+        this.startDate = startDate;
+        this.targetDate = targetDate;
+        this.description = description;
+    }
+
+    public static SavingsGoal ofCents(String name, long targetCents, LocalDate targetDate, String description) {
+        SavingsGoal goal = new SavingsGoal(name, 0, targetDate, description);
+        goal.targetCents = targetCents;
+        return goal;
+    }
+
     // Getters
     public int getId() { return id; }
     public String getName() { return name; }
-    public double getTargetAmount() { return targetAmount; }
-    public double getCurrentAmount() { return currentAmount; }
+    public double getTargetAmount() { return Money.toDouble(targetCents); }
+    public double getCurrentAmount() { return Money.toDouble(currentCents); }
+    public long getTargetCents() { return targetCents; }
+    public long getCurrentCents() { return currentCents; }
     public LocalDate getStartDate() { return startDate; }
     public LocalDate getTargetDate() { return targetDate; }
     public String getDescription() { return description; }
 
     // Setters
     public void setName(String name) { this.name = name; }
-    public void setTargetAmount(double targetAmount) { this.targetAmount = targetAmount; }
-    public void setCurrentAmount(double currentAmount) { this.currentAmount = Math.max(0, currentAmount); }
+    public void setTargetAmount(double targetAmount) { this.targetCents = Money.fromDouble(targetAmount); }
+    public void setCurrentAmount(double currentAmount) { this.currentCents = Math.max(0, Money.fromDouble(currentAmount)); }
     public void setTargetDate(LocalDate targetDate) { this.targetDate = targetDate; }
     public void setDescription(String description) { this.description = description; }
 
     // Business methods
     public void addToSavings(double amount) {
-        if (amount > 0) {
-            this.currentAmount += amount;
+        addToSavingsCents(Money.fromDouble(amount));
+    }
+
+    public void addToSavingsCents(long cents) {
+        if (cents > 0) {
+            this.currentCents += cents;
         }
     }
 
     public double getRemainingAmount() {
-        return Math.max(0, targetAmount - currentAmount);
+        return Money.toDouble(getRemainingCents());
+    }
+
+    public long getRemainingCents() {
+        return Math.max(0, targetCents - currentCents);
     }
 
     public double getProgressPercentage() {
-        if (targetAmount == 0) return 0;
-        return Math.min(100, (currentAmount / targetAmount) * 100);
+        return Math.min(100, Money.percent(currentCents, targetCents));
     }
 
     public boolean isGoalAchieved() {
-        return currentAmount >= targetAmount;
+        return currentCents >= targetCents;
     }
 
     public long getDaysRemaining() {
@@ -113,19 +141,30 @@ public class SavingsGoal {
     public String toString() {
         return String.format(
             "Goal: %s\n" +
-            "  Target: $%.2f | Current: $%.2f (%.1f%%)\n" +
-            "  Remaining: $%.2f\n" +
+            "  Target: $%s | Current: $%s (%.1f%%)\n" +
+            "  Remaining: $%s\n" +
             "  %s\n" +
             "  Monthly savings needed: $%.2f",
-            name, targetAmount, currentAmount, getProgressPercentage(),
-            getRemainingAmount(), getTimeRemainingText(), getRequiredMonthlySavings()
+            name, Money.format(targetCents), Money.format(currentCents), getProgressPercentage(),
+            Money.format(getRemainingCents()), getTimeRemainingText(), getRequiredMonthlySavings()
         );
     }
 
     public String toCSVString() {
-        return String.format("%d,%s,%.2f,%.2f,%s,%s,%s",
-                           id, name, targetAmount, currentAmount,
-                           startDate, targetDate, description.replace(",", ";"));
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(id).append(',').append(name).append(',');
+        Money.append(sb, targetCents).append(',');
+        Money.append(sb, currentCents).append(',');
+        sb.append(startDate).append(',').append(targetDate).append(',')
+          .append(description.replace(",", ";"));
+        return sb.toString();
+    }
+
+    // Rebuilds a stored goal, keeping the id sequence ahead of restored ids
+    static SavingsGoal restore(int id, String name, long targetCents, long currentCents,
+                               LocalDate startDate, LocalDate targetDate, String description) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+        return new SavingsGoal(id, name, targetCents, currentCents, startDate, targetDate, description);
     }
 
     public static SavingsGoal fromCSVString(String csvLine) {
@@ -133,21 +172,13 @@ public class SavingsGoal {
         if (parts.length >= 6) {
             int id = Integer.parseInt(parts[0]);
             String name = parts[1];
-            double targetAmount = Double.parseDouble(parts[2]);
-            double currentAmount = Double.parseDouble(parts[3]);
+            long targetCents = Money.parse(parts[2]);
+            long currentCents = Money.parse(parts[3]);
             LocalDate startDate = LocalDate.parse(parts[4]);
             LocalDate targetDate = LocalDate.parse(parts[5]);
             String description = parts.length > 6 ? parts[6].replace(";", ",") : "";
 
-            SavingsGoal goal = new SavingsGoal(name, targetAmount, targetDate, description);
-            goal.id = id;
-            goal.currentAmount = currentAmount;
-            goal.startDate = startDate;
-
-            if (id >= nextId) {
-                nextId = id + 1;
-            }
-            return goal;
+            return restore(id, name, targetCents, currentCents, startDate, targetDate, description);
         }
         return null;
     }
@@ -0,0 +1,130 @@
+package src;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+
+public class SpendingAggregates implements TransactionListener {
+    // cells[month - firstMonth][categoryId * 2 + type] and totals[month - firstMonth][type], in cents
+    private int firstMonth;
+    private long[][] cells = new long[0][];
+    private long[][] totals = new long[0][];
+
+    public SpendingAggregates(TransactionStore store) {
+        rebuild(store);
+    }
+
+    private SpendingAggregates() {
+    }
+
+    // Standalone copy that is no longer kept in step with the store; one row of cells per month
+    public SpendingAggregates copy() {
+        SpendingAggregates copy = new SpendingAggregates();
+        copy.firstMonth = firstMonth;
+        copy.cells = new long[cells.length][];
+        copy.totals = new long[totals.length][];
+        for (int i = 0; i < cells.length; i++) {
+            copy.cells[i] = cells[i].clone();
+            copy.totals[i] = totals[i].clone();
+        }
+        return copy;
+    }
+
+    public void rebuild(TransactionStore store) {
+        cells = new long[0][];
+        totals = new long[0][];
+        for (int row = 0; row < store.size(); row++) {
+            apply(TransactionStore.epochMonth(store.getEpochDay(row)), store.getCategoryId(row),
+                  store.getType(row), store.getAmountCents(row));
+        }
+    }
+
+    // Lookups
+    public long getCents(YearMonth month, int categoryId, byte type) {
+        return getMonthCents(TransactionStore.epochMonth(month), categoryId, type);
+    }
+
+    public long getMonthCents(int epochMonth, int categoryId, byte type) {
+        long[] monthCells = cellsFor(epochMonth);
+        int slot = categoryId * 2 + type;
+        return monthCells != null && categoryId >= 0 && slot < monthCells.length ? monthCells[slot] : 0;
+    }
+
+    public long getMonthTotal(YearMonth month, byte type) {
+        int index = TransactionStore.epochMonth(month) - firstMonth;
+        return index >= 0 && index < totals.length ? totals[index][type] : 0;
+    }
+
+    // Listener hooks keep the cells in step with the store
+    @Override
+    public void transactionAdded(TransactionStore store, int row) {
+        apply(TransactionStore.epochMonth(store.getEpochDay(row)), store.getCategoryId(row),
+              store.getType(row), store.getAmountCents(row));
+    }
+
+    @Override
+    public void transactionUpdated(TransactionStore store, int row, Transaction previous) {
+        apply(TransactionStore.epochMonth((int) previous.getDate().toEpochDay()),
+              store.lookupCategory(previous.getCategory()),
+              TransactionStore.typeCode(previous.getType()),
+              -previous.getAmountCents());
+        transactionAdded(store, row);
+    }
+
+    @Override
+    public void transactionRemoved(TransactionStore store, int row) {
+        apply(TransactionStore.epochMonth(store.getEpochDay(row)), store.getCategoryId(row),
+              store.getType(row), -store.getAmountCents(row));
+    }
+
+    private void apply(int month, int categoryId, byte type, long cents) {
+        int index = ensureMonth(month);
+        int slot = categoryId * 2 + type;
+        long[] monthCells = cells[index];
+        if (slot >= monthCells.length) {
+            monthCells = Arrays.copyOf(monthCells, Math.max(slot + 1, monthCells.length * 2));
+            cells[index] = monthCells;
+        }
+        monthCells[slot] += cents;
+        totals[index][type] += cents;
+    }
+
+    private long[] cellsFor(int month) {
+        int index = month - firstMonth;
+        return index >= 0 && index < cells.length ? cells[index] : null;
+    }
+
+    // Grows the month range in either direction and returns the slot for the month
+    private int ensureMonth(int month) {
+        if (cells.length == 0) {
+            firstMonth = month;
+            cells = new long[][] { new long[32] };
+            totals = new long[][] { new long[2] };
+            return 0;
+        }
+
+        if (month < firstMonth) {
+            int shift = firstMonth - month;
+            long[][] grownCells = new long[cells.length + shift][];
+            long[][] grownTotals = new long[totals.length + shift][];
+            System.arraycopy(cells, 0, grownCells, shift, cells.length);
+            System.arraycopy(totals, 0, grownTotals, shift, totals.length);
+            for (int i = 0; i < shift; i++) {
+                grownCells[i] = new long[32];
+                grownTotals[i] = new long[2];
+            }
+            cells = grownCells;
+            totals = grownTotals;
+            firstMonth = month;
+        } else if (month - firstMonth >= cells.length) {
+            int oldLength = cells.length;
+            int length = month - firstMonth + 1;
+            cells = Arrays.copyOf(cells, length);
+            totals = Arrays.copyOf(totals, length);
+            for (int i = oldLength; i < length; i++) {
+                cells[i] = new long[32];
+                totals[i] = new long[2];
+            }
+        }
+        return month - firstMonth;
+    }
+}
@@ -0,0 +1,511 @@
+package src;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+
+/*
+ * Bulk import of bank statement CSV files.
+ *
+ * read -> parse -> normalize -> validate -> dedupe -> insert
+ *
+ * Each stage runs on its own thread and hands batches of rows to the next through a
+ * bounded queue, so a slow stage holds back the reader instead of buffering the file.
+ * Rows that fail a stage are set aside with their line number and the import carries on.
+ * Duplicates of stored transactions, or of earlier rows in the file, are skipped.
+ * Only the insert stage touches the store. It takes the ledger's write lock one batch at a
+ * time, so reading and parsing the file never hold up readers. The caller waits for it to finish.
+ *
+ * Columns are found from the header (date, description/memo/payee, amount, and optional
+ * category and type). Without a header the order is Date,Description,Amount[,Category].
+ * Without a type column, negative amounts are expenses and positive amounts income.
+ */
+public class StatementImporter {
+    private static final int BATCH_SIZE = 1024;
+    private static final int QUEUE_CAPACITY = 8;
+    private static final int MAX_REPORTED_REJECTS = 100;
+
+    private static final List<Row> END = Collections.emptyList();
+    private static final DateTimeFormatter DAY_FIRST = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Keyword -> category used when the statement has no category column
+    private static final String[][] CATEGORY_KEYWORDS = {
+        { "payroll", "Salary" }, { "salary", "Salary" },
+        { "invoice", "Freelance" }, { "freelance", "Freelance" },
+        { "dividend", "Investments" }, { "interest", "Investments" },
+        { "gift", "Gifts" },
+        { "restaurant", "Food & Dining" }, { "cafe", "Food & Dining" }, { "coffee", "Food & Dining" },
+        { "grocery", "Food & Dining" }, { "supermarket", "Food & Dining" }, { "pizza", "Food & Dining" },
+        { "uber", "Transportation" }, { "lyft", "Transportation" }, { "taxi", "Transportation" },
+        { "fuel", "Transportation" }, { "parking", "Transportation" }, { "transit", "Transportation" },
+        { "amazon", "Shopping" }, { "store", "Shopping" }, { "shop", "Shopping" },
+        { "netflix", "Entertainment" }, { "spotify", "Entertainment" }, { "cinema", "Entertainment" },
+        { "electric", "Bills & Utilities" }, { "water", "Bills & Utilities" }, { "internet", "Bills & Utilities" },
+        { "phone", "Bills & Utilities" }, { "rent", "Bills & Utilities" },
+        { "pharmacy", "Healthcare" }, { "doctor", "Healthcare" }, { "dental", "Healthcare" },
+        { "tuition", "Education" }, { "course", "Education" },
+        { "airline", "Travel" }, { "hotel", "Travel" }, { "airbnb", "Travel" },
+        { "insurance", "Insurance" }
+    };
+
+    private final Ledger ledger;
+    private final TransactionStore store;
+    private final Queue<Rejected> rejected = new ConcurrentLinkedQueue<>();
+    private volatile Exception failure;
+
+    // Header layout, fixed by the read stage before the first batch is queued
+    private int dateColumn = 0;
+    private int descriptionColumn = 1;
+    private int amountColumn = 2;
+    private int categoryColumn = 3;
+    private int typeColumn = -1;
+
+    // Must be called from the thread that makes every change to the ledger
+    public StatementImporter(Ledger ledger) {
+        this.ledger = ledger;
+        this.store = ledger.getStore();
+    }
+
+    public ImportResult importFile(Path file) {
+        // Built (if need be) and copied up front, so the dedupe stage checks against the ledger
+        // as it was before the import without touching the live index the inserts update
+        DuplicateIndex stored = ledger.writeAndGet(() -> store.getDuplicateIndex().copy());
+        Stage[] stages = {
+            new Stage("read") {
+                @Override
+                void run(BlockingQueue<List<Row>> in, BlockingQueue<List<Row>> out) throws Exception {
+                    readFile(file, out);
+                }
+            },
+            new BatchStage("parse", this::parse),
+            new BatchStage("normalize", this::normalize),
+            new BatchStage("validate", this::validate),
+            new DedupeStage(stored),
+            new InsertStage()
+        };
+
+        List<Thread> threads = new ArrayList<>();
+        BlockingQueue<List<Row>> in = null;
+        for (int i = 0; i < stages.length; i++) {
+            Stage stage = stages[i];
+            // The insert stage is the sink and has nothing downstream
+            BlockingQueue<List<Row>> out = i < stages.length - 1 ? new ArrayBlockingQueue<>(QUEUE_CAPACITY) : null;
+            Thread thread = new Thread(stage.runner(in, out), "import-" + stage.name);
+            thread.setDaemon(true);
+            threads.add(thread);
+            in = out;
+        }
+
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        }
+
+        List<Rejected> rejects = new ArrayList<>(rejected);
+        rejects.sort(Comparator.comparingLong(r -> r.lineNumber));
+        return new ImportResult(stages, rejects, failure, System.nanoTime() - start);
+    }
+
+    // Stage bodies
+
+    private void readFile(Path file, BlockingQueue<List<Row>> out) throws IOException, InterruptedException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            long lineNumber = 1;
+            if (line != null && detectHeader(line)) {
+                line = reader.readLine();
+                lineNumber++;
+            }
+
+            List<Row> batch = new ArrayList<>(BATCH_SIZE);
+            for (; line != null; line = reader.readLine(), lineNumber++) {
+                if (line.trim().isEmpty()) continue;
+                batch.add(new Row(lineNumber, line));
+                if (batch.size() == BATCH_SIZE) {
+                    out.put(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                out.put(batch);
+            }
+        }
+    }
+
+    private boolean parse(Row row) {
+        String[] fields = splitCsv(row.line);
+        if (fields.length <= Math.max(dateColumn, Math.max(descriptionColumn, amountColumn))) {
+            return reject(row, "expected at least " + (Math.max(dateColumn, Math.max(descriptionColumn, amountColumn)) + 1) + " columns");
+        }
+
+        String date = fields[dateColumn].trim();
+        try {
+            row.epochDay = (int) (date.indexOf('/') > 0 ? LocalDate.parse(date, DAY_FIRST) : LocalDate.parse(date)).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return reject(row, "unrecognised date '" + date + "'");
+        }
+
+        try {
+            row.cents = Money.parse(fields[amountColumn]);
+        } catch (NumberFormatException e) {
+            return reject(row, "unrecognised amount '" + fields[amountColumn].trim() + "'");
+        }
+
+        row.description = fields[descriptionColumn];
+        row.category = categoryColumn >= 0 && categoryColumn < fields.length ? fields[categoryColumn].trim() : "";
+        row.typeText = typeColumn >= 0 && typeColumn < fields.length ? fields[typeColumn].trim() : "";
+        return true;
+    }
+
+    private boolean normalize(Row row) {
+        if (row.typeText.isEmpty()) {
+            row.type = row.cents < 0 ? TransactionStore.EXPENSE : TransactionStore.INCOME;
+        } else {
+            String type = row.typeText.toLowerCase(Locale.ROOT);
+            if (type.equals("income") || type.equals("credit") || type.equals("cr")) {
+                row.type = TransactionStore.INCOME;
+            } else if (type.equals("expense") || type.equals("debit") || type.equals("dr")) {
+                row.type = TransactionStore.EXPENSE;
+            } else {
+                return reject(row, "unknown type '" + row.typeText + "'");
+            }
+        }
+        row.cents = Math.abs(row.cents);
+
+        // Commas would split the stored CSV line, so they become semicolons like goal descriptions
+        row.description = WHITESPACE.matcher(row.description.trim()).replaceAll(" ").replace(',', ';');
+
+        if (row.category.isEmpty()) {
+            row.category = categoryFor(row.description, row.type);
+        }
+        return true;
+    }
+
+    private boolean validate(Row row) {
+        if (row.cents == 0) {
+            return reject(row, "zero amount");
+        }
+        String type = TransactionStore.typeName(row.type);
+        if (!Category.isValidCategory(row.category, type)) {
+            return reject(row, "'" + row.category + "' is not a " + type.toLowerCase(Locale.ROOT) + " category");
+        }
+        row.categoryId = Category.lookup(row.category);
+        return true;
+    }
+
+    private boolean reject(Row row, String reason) {
+        rejected.add(new Rejected(row.line, row.lineNumber, reason));
+        return false;
+    }
+
+    // Helpers
+
+    private boolean detectHeader(String line) {
+        String[] fields = splitCsv(line.toLowerCase(Locale.ROOT));
+        // The layout is only taken up once the header is accepted
+        int date = -1, description = -1, amount = -1, category = -1, type = -1;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i].trim();
+            if (date < 0 && field.contains("date")) date = i;
+            else if (amount < 0 && field.contains("amount")) amount = i;
+            else if (category < 0 && field.contains("categor")) category = i;
+            else if (type < 0 && field.equals("type")) type = i;
+            else if (description < 0 && (field.contains("desc") || field.contains("memo")
+                     || field.contains("payee") || field.contains("detail") || field.contains("narrative"))) description = i;
+        }
+        if (description < 0) {
+            // Fall back to the first column that is none of the others
+            for (int i = 0; i < fields.length && description < 0; i++) {
+                if (i != date && i != amount && i != category && i != type) description = i;
+            }
+        }
+        if (date < 0 || amount < 0 || description < 0) return false;
+
+        dateColumn = date;
+        amountColumn = amount;
+        descriptionColumn = description;
+        categoryColumn = category;
+        typeColumn = type;
+        return true;
+    }
+
+    private static String categoryFor(String description, byte type) {
+        String text = description.toLowerCase(Locale.ROOT);
+        String typeName = TransactionStore.typeName(type);
+        for (String[] mapping : CATEGORY_KEYWORDS) {
+            if (text.contains(mapping[0]) && Category.isValidCategory(mapping[1], typeName)) {
+                return mapping[1];
+            }
+        }
+        return type == TransactionStore.INCOME ? "Other Income" : "Miscellaneous";
+    }
+
+    // Splits one CSV line, honouring double-quoted fields with "" escapes
+    static String[] splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    // Stages
+
+    private abstract class Stage {
+        final String name;
+        long rowsIn;
+        long rowsOut;
+        long busyNanos;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        abstract void run(BlockingQueue<List<Row>> in, BlockingQueue<List<Row>> out) throws Exception;
+
+        // Always passes END downstream, even on failure, so no stage waits forever
+        Runnable runner(BlockingQueue<List<Row>> in, BlockingQueue<List<Row>> out) {
+            return () -> {
+                long start = System.nanoTime();
+                try {
+                    run(in, out);
+                } catch (Exception e) {
+                    if (failure == null) failure = e;
+                    if (in != null) drain(in);
+                } finally {
+                    if (in == null) busyNanos = System.nanoTime() - start;
+                    try {
+                        if (out != null) out.put(END);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+        }
+
+        private void drain(BlockingQueue<List<Row>> in) {
+            try {
+                while (in.take() != END) {
+                    // Upstream keeps producing until it sees the failure; discard its output
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private interface RowStep {
+        boolean apply(Row row);
+    }
+
+    private class BatchStage extends Stage {
+        private final RowStep step;
+
+        BatchStage(String name, RowStep step) {
+            super(name);
+            this.step = step;
+        }
+
+        @Override
+        void run(BlockingQueue<List<Row>> in, BlockingQueue<List<Row>> out) throws Exception {
+            for (List<Row> batch = in.take(); batch != END; batch = in.take()) {
+                long start = System.nanoTime();
+                List<Row> kept = new ArrayList<>(batch.size());
+                for (Row row : batch) {
+                    if (failure != null) break;
+                    if (step.apply(row)) kept.add(row);
+                }
+                rowsIn += batch.size();
+                rowsOut += kept.size();
+                busyNanos += System.nanoTime() - start;
+                if (out != null && !kept.isEmpty()) {
+                    out.put(kept);
+                }
+            }
+        }
+    }
+
+    private class DedupeStage extends Stage {
+        private final DuplicateIndex seen;
+        long duplicates;
+
+        DedupeStage(DuplicateIndex seen) {
+            super("dedupe");
+            this.seen = seen;
+        }
+
+        @Override
+        void run(BlockingQueue<List<Row>> in, BlockingQueue<List<Row>> out) throws Exception {
+            for (List<Row> batch = in.take(); batch != END; batch = in.take()) {
+                long start = System.nanoTime();
+                List<Row> kept = new ArrayList<>(batch.size());
+                for (Row row : batch) {
+                    long fingerprint = DuplicateIndex.fingerprint(row.epochDay, row.cents, row.type,
+                                                                  row.categoryId, row.description);
+                    if (seen.contains(fingerprint)) {
+                        duplicates++;
+                    } else {
+                        seen.add(fingerprint);
+                        kept.add(row);
+                    }
+                }
+                rowsIn += batch.size();
+                rowsOut += kept.size();
+                busyNanos += System.nanoTime() - start;
+                if (out != null && !kept.isEmpty()) {
+                    out.put(kept);
+                }
+            }
+        }
+    }
+
+    private class InsertStage extends Stage {
+        InsertStage() {
+            super("insert");
+        }
+
+        @Override
+        void run(BlockingQueue<List<Row>> in, BlockingQueue<List<Row>> out) throws Exception {
+            for (List<Row> batch = in.take(); batch != END; batch = in.take()) {
+                long start = System.nanoTime();
+                List<Row> rows = batch;
+                ledger.write(() -> {
+                    int firstId = Transaction.allocateIds(rows.size());
+                    for (int i = 0; i < rows.size(); i++) {
+                        Row row = rows.get(i);
+                        store.add(firstId + i, row.type, row.cents, row.categoryId, row.description, row.epochDay);
+                    }
+                });
+                rowsIn += batch.size();
+                rowsOut += batch.size();
+                busyNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    private static class Row {
+        final long lineNumber;
+        final String line;
+        int epochDay;
+        long cents;
+        byte type;
+        String description;
+        String category;
+        String typeText;
+        int categoryId;
+
+        Row(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    public static class Rejected {
+        public final String line;
+        public final long lineNumber;
+        public final String reason;
+
+        Rejected(String line, long lineNumber, String reason) {
+            this.line = line;
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+
+    public static class ImportResult {
+        private final long imported;
+        private final long duplicates;
+        private final List<Rejected> rejected;
+        private final Exception failure;
+        private final long elapsedNanos;
+        private final String[] stageNames;
+        private final long[] stageRows;
+        private final long[] stageNanos;
+
+        private ImportResult(Stage[] stages, List<Rejected> rejected, Exception failure, long elapsedNanos) {
+            this.imported = stages[stages.length - 1].rowsOut;
+            this.duplicates = ((DedupeStage) stages[4]).duplicates;
+            this.rejected = rejected;
+            this.failure = failure;
+            this.elapsedNanos = elapsedNanos;
+            this.stageNames = new String[stages.length];
+            this.stageRows = new long[stages.length];
+            this.stageNanos = new long[stages.length];
+            for (int i = 0; i < stages.length; i++) {
+                stageNames[i] = stages[i].name;
+                stageRows[i] = i == 0 ? stages[1].rowsIn : stages[i].rowsIn;
+                stageNanos[i] = stages[i].busyNanos;
+            }
+        }
+
+        public long getImported() { return imported; }
+        public long getDuplicates() { return duplicates; }
+        public List<Rejected> getRejected() { return rejected; }
+        public Exception getFailure() { return failure; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public void print() {
+            if (failure != null) {
+                System.err.println("Error importing statement: " + failure.getMessage());
+            }
+            System.out.printf("Imported %,d transactions (%,d duplicates skipped, %,d rows rejected) in %.2f s%n",
+                              imported, duplicates, rejected.size(), elapsedNanos / 1e9);
+
+            for (int i = 0; i < rejected.size() && i < MAX_REPORTED_REJECTS; i++) {
+                System.out.println("  Rejected " + rejected.get(i));
+            }
+            if (rejected.size() > MAX_REPORTED_REJECTS) {
+                System.out.println("  ... and " + (rejected.size() - MAX_REPORTED_REJECTS) + " more");
+            }
+
+            System.out.println("\n--- STAGE THROUGHPUT ---");
+            for (int i = 0; i < stageNames.length; i++) {
+                double seconds = stageNanos[i] / 1e9;
+                System.out.printf("%-10s %,12d rows %,14.0f rows/s%n", stageNames[i], stageRows[i],
+                                  seconds > 0 ? stageRows[i] / seconds : 0);
+            }
+        }
+    }
+}
@@ -2,20 +2,23 @@ package src;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Transaction {
-    private static int nextId = 1;
+    // Shared by every thread that creates or loads transactions
+    private static final AtomicInteger nextId = new AtomicInteger(1);
     private int id;
     private String type; // "INCOME" or "EXPENSE"
-    private double amount;
+    private long amountCents;
     private String category;
     private String description;
     private LocalDate date;
 
     public Transaction(String type, double amount, String category, String description, LocalDate date) {
-        this.id = nextId++;
+        this.id = nextId.getAndIncrement();
         this.type = type.toUpperCase();
-        this.amount = amount;
+        this.amountCents = Money.fromDouble(amount);
         this.category = category;
         this.description = description;
         this.date = date;
@@ -25,50 +28,96 @@ public class Transaction {
         this(type, amount, category, description, LocalDate.now());
     }
 
+    public static Transaction ofCents(String type, long amountCents, String category, String description, LocalDate date) {
+        Transaction transaction = new Transaction(type, 0, category, description, date);
+        transaction.amountCents = amountCents;
+        return transaction;
+    }
+
+    // Builds a detached copy of a stored row without consuming a new id
+    private Transaction(int id, String type, long amountCents, String category, String description, LocalDate date) {
+        this.id = id;
+        this.type = type;
+        this.amountCents = amountCents;
+        this.category = category;
+        this.description = description;
+        this.date = date;
+    }
+
+    static Transaction view(int id, String type, long amountCents, String category, String description, LocalDate date) {
+        return new Transaction(id, type, amountCents, category, description, date);
+    }
+
+    // Rebuilds a stored transaction under its own id, keeping the id sequence ahead of it
+    static Transaction restore(int id, String type, long amountCents, String category, String description, LocalDate date) {
+        reserveId(id);
+        return new Transaction(id, type.toUpperCase(), amountCents, category, description, date);
+    }
+
+    // Hands out a block of fresh ids for rows stored without a Transaction object
+    static int allocateIds(int count) {
+        return nextId.getAndAdd(count);
+    }
+
+    // Keeps the id sequence ahead of ids restored from storage
+    static void reserveId(int id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+
     // Getters
     public int getId() { return id; }
     public String getType() { return type; }
-    public double getAmount() { return amount; }
+    public double getAmount() { return Money.toDouble(amountCents); }
+    public long getAmountCents() { return amountCents; }
     public String getCategory() { return category; }
     public String getDescription() { return description; }
     public LocalDate getDate() { return date; }
 
     // Setters
-    public void setAmount(double amount) { this.amount = amount; }
+    public void setAmount(double amount) { this.amountCents = Money.fromDouble(amount); }
+    public void setAmountCents(long amountCents) { this.amountCents = amountCents; }
     public void setCategory(String category) { this.category = category; }
     public void setDescription(String description) { this.description = description; }
     public void setDate(LocalDate date) { this.date = date; }
 
     @Override
     public String toString() {
-        return String.format("ID: %d | %s | $%.2f | %s | %s | %s", 
-                           id, type, amount, category, description, 
+        return String.format("ID: %d | %s | $%s | %s | %s | %s", 
+                           id, type, Money.format(amountCents), category, description, 
                            date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")));
     }
 
     public String toCSVString() {
-        return String.format("%d,%s,%.2f,%s,%s,%s", 
-                           id, type, amount, category, description, 
-                           date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(id).append(',').append(type).append(',');
+        Money.append(sb, amountCents);
+        sb.append(',').append(category).append(',').append(description).append(',');
+        TransactionExporter.appendIsoDate(sb, (int) date.toEpochDay());
+        return sb.toString();
     }
 
+    // Same layout as the data file: the description may itself contain commas, so the date is
+    // the last field. Returns null for a line that does not parse.
     public static Transaction fromCSVString(String csvLine) {
-        String[] parts = csvLine.split(",");
-        if (parts.length >= 6) {
-            int id = Integer.parseInt(parts[0]);
-            String type = parts[1];
-            double amount = Double.parseDouble(parts[2]);
-            String category = parts[3];
-            String description = parts[4];
-            LocalDate date = LocalDate.parse(parts[5]);
-
-            Transaction transaction = new Transaction(type, amount, category, description, date);
-            transaction.id = id;
-            if (id >= nextId) {
-                nextId = id + 1;
-            }
-            return transaction;
+        int c1 = csvLine.indexOf(',');
+        int c2 = c1 < 0 ? -1 : csvLine.indexOf(',', c1 + 1);
+        int c3 = c2 < 0 ? -1 : csvLine.indexOf(',', c2 + 1);
+        int c4 = c3 < 0 ? -1 : csvLine.indexOf(',', c3 + 1);
+        int c5 = csvLine.lastIndexOf(',');
+        if (c4 < 0 || c5 <= c4) {
+            return null;
+        }
+        try {
+            int id = Integer.parseInt(csvLine.substring(0, c1).trim());
+            String type = csvLine.substring(c1 + 1, c2);
+            long amountCents = Money.parse(csvLine.substring(c2 + 1, c3));
+            String category = csvLine.substring(c3 + 1, c4);
+            String description = csvLine.substring(c4 + 1, c5);
+            LocalDate date = LocalDate.parse(csvLine.substring(c5 + 1).trim());
+
+            return restore(id, type, amountCents, category, description, date);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
         }
-        return null;
     }
 }
\ No newline at end of file
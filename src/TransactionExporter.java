@@ -0,0 +1,119 @@
+package src;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.GZIPOutputStream;
+
+public class TransactionExporter {
+    public static final String HEADER = "ID,Type,Amount,Category,Description,Date";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final TransactionStore store;
+    private final StringBuilder line = new StringBuilder(128);
+    private long offset;
+    private TransactionPartitions partitions;
+
+    public TransactionExporter(TransactionStore store) {
+        this.store = store;
+    }
+
+    // Streams matching rows to the target and returns how many were written
+    public int export(Path target, TransactionFilter filter, boolean gzip) throws IOException {
+        return export(target, filter, gzip, null);
+    }
+
+    // partitions, when given, receives the byte offset of every row written
+    public int export(Path target, TransactionFilter filter, boolean gzip,
+                      TransactionPartitions partitions) throws IOException {
+        OutputStream out = new FileOutputStream(target.toFile());
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            return write(writer, filter, partitions);
+        }
+    }
+
+    public int write(Writer writer, TransactionFilter filter) throws IOException {
+        return write(writer, filter, null);
+    }
+
+    private int write(Writer writer, TransactionFilter filter, TransactionPartitions partitions) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        offset = HEADER.length() + 1;
+        this.partitions = partitions;
+
+        int written = 0;
+        if (filter.hasDateRange()) {
+            for (int row : filter.select(store)) {
+                writeRow(writer, row);
+                written++;
+            }
+        } else {
+            for (int row = 0; row < store.size(); row++) {
+                if (filter.test(store, row)) {
+                    writeRow(writer, row);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    private void writeRow(Writer writer, int row) throws IOException {
+        line.setLength(0);
+        appendRow(line, store, row);
+        line.append('\n');
+        writer.append(line);
+        if (partitions != null) {
+            partitions.record(TransactionStore.epochMonth(store.getEpochDay(row)), offset, store.getId(row));
+            offset += utf8Length(line);
+        }
+    }
+
+    private static int utf8Length(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isSurrogate(c)) {
+                // A surrogate pair is 4 bytes, counted as 2 + 2
+                length++;
+            } else if (c >= 0x800) {
+                length += 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    // Same layout as Transaction.toCSVString, built without String.format
+    public static void appendRow(StringBuilder sb, TransactionStore store, int row) {
+        sb.append(store.getId(row)).append(',')
+          .append(TransactionStore.typeName(store.getType(row))).append(',');
+        Money.append(sb, store.getAmountCents(row));
+        sb.append(',').append(store.getCategory(row))
+          .append(',').append(store.getDescription(row))
+          .append(',');
+        appendIsoDate(sb, store.getEpochDay(row));
+    }
+
+    public static void appendIsoDate(StringBuilder sb, int epochDay) {
+        int epochMonth = TransactionStore.epochMonth(epochDay);
+        int year = Math.floorDiv(epochMonth, 12);
+        int month = Math.floorMod(epochMonth, 12) + 1;
+        int day = epochDay - MappedTransactionLoader.epochDay(year, month, 1) + 1;
+
+        if (year < 1000 && year >= 0) {
+            sb.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        sb.append(year).append('-');
+        if (month < 10) sb.append('0');
+        sb.append(month).append('-');
+        if (day < 10) sb.append('0');
+        sb.append(day);
+    }
+}
@@ -0,0 +1,69 @@
+package src;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+public class TransactionFilter {
+    private static final int ANY_CATEGORY = Integer.MIN_VALUE;
+    private static final byte ANY_TYPE = -1;
+
+    private int fromEpochDay = Integer.MIN_VALUE;
+    private int toEpochDay = Integer.MAX_VALUE;
+    private byte type = ANY_TYPE;
+    private int categoryId = ANY_CATEGORY;
+
+    public static TransactionFilter all() {
+        return new TransactionFilter();
+    }
+
+    // Either bound may be null for an open-ended range
+    public TransactionFilter between(LocalDate from, LocalDate to) {
+        this.fromEpochDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        this.toEpochDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        return this;
+    }
+
+    public TransactionFilter ofType(byte type) {
+        this.type = type;
+        return this;
+    }
+
+    // Unknown categories (id -1) match nothing
+    public TransactionFilter inCategory(int categoryId) {
+        this.categoryId = categoryId;
+        return this;
+    }
+
+    public boolean hasDateRange() {
+        return fromEpochDay != Integer.MIN_VALUE || toEpochDay != Integer.MAX_VALUE;
+    }
+
+    // True when a type or category narrows the rows beyond their dates
+    public boolean hasRowFilter() {
+        return type != ANY_TYPE || categoryId != ANY_CATEGORY;
+    }
+
+    public boolean test(TransactionStore store, int row) {
+        int day = store.getEpochDay(row);
+        return day >= fromEpochDay && day <= toEpochDay
+            && (type == ANY_TYPE || store.getType(row) == type)
+            && (categoryId == ANY_CATEGORY || store.getCategoryId(row) == categoryId);
+    }
+
+    // Matching rows in stored order; date ranges are sliced from the date index first
+    public int[] select(TransactionStore store) {
+        if (!hasDateRange()) {
+            return store.selectRows(row -> test(store, row));
+        }
+
+        int[] candidates = store.selectDateRange(fromEpochDay, toEpochDay);
+        Arrays.sort(candidates);
+        int count = 0;
+        for (int row : candidates) {
+            if (test(store, row)) {
+                candidates[count++] = row;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+}
@@ -0,0 +1,159 @@
+package src;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+public class TransactionJournal implements TransactionListener {
+    private static final String ADD = "A";
+    private static final String UPDATE = "U";
+    private static final String DELETE = "D";
+
+    private final File journalFile;
+    private final List<String> pendingEntries = new ArrayList<>();
+    private long journalEntries;
+    private long skippedEntries;
+
+    public TransactionJournal(File journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    // Listener hooks record each mutation until the next flush
+    @Override
+    public void transactionAdded(TransactionStore store, int row) {
+        pendingEntries.add(entry(ADD, store, row));
+    }
+
+    @Override
+    public void transactionUpdated(TransactionStore store, int row, Transaction previous) {
+        pendingEntries.add(entry(UPDATE, store, row));
+    }
+
+    @Override
+    public void transactionRemoved(TransactionStore store, int row) {
+        pendingEntries.add(DELETE + "," + store.getId(row));
+    }
+
+    // Paged-in rows are already in the base file
+    @Override
+    public void transactionsPrepended(TransactionStore store, int count) {
+    }
+
+    private static String entry(String op, TransactionStore store, int row) {
+        StringBuilder sb = new StringBuilder(96).append(op).append(',');
+        TransactionExporter.appendRow(sb, store, row);
+        return sb.toString();
+    }
+
+    public long getJournalEntries() {
+        return journalEntries;
+    }
+
+    // Lines the last replay could not apply, such as one torn by a crash mid-append
+    public long getSkippedEntries() {
+        return skippedEntries;
+    }
+
+    // Appends pending entries to the log; nothing already on disk is rewritten
+    public void flush() throws IOException {
+        if (pendingEntries.isEmpty()) return;
+
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8)))) {
+            for (String entry : pendingEntries) {
+                writer.println(entry);
+            }
+            if (writer.checkError()) {
+                throw new IOException("Failed to append to " + journalFile);
+            }
+        }
+        journalEntries += pendingEntries.size();
+        pendingEntries.clear();
+    }
+
+    // Called once the base file holds everything the log described
+    public void reset() {
+        pendingEntries.clear();
+        journalEntries = 0;
+        if (journalFile.exists() && !journalFile.delete()) {
+            System.err.println("Error clearing transaction journal: " + journalFile);
+        }
+    }
+
+    // For a ledger restored from a snapshot that already includes the log: counts the entries
+    // still on disk so compaction is due at the same point as after a replay
+    public void countEntries() throws IOException {
+        journalEntries = 0;
+        skippedEntries = 0;
+        if (!journalFile.exists()) return;
+
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) journalEntries++;
+            }
+        }
+    }
+
+    // Applies the log on top of a freshly loaded base file
+    public void replay(TransactionStore store) throws IOException {
+        journalEntries = 0;
+        skippedEntries = 0;
+        if (!journalFile.exists()) return;
+
+        Map<Integer, Integer> rowsById = new HashMap<>();
+        for (int row = 0; row < store.size(); row++) {
+            rowsById.put(store.getId(row), row);
+        }
+        BitSet deletedRows = new BitSet();
+
+        try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                journalEntries++;
+                int separator = line.indexOf(',');
+                if (separator < 0) {
+                    skippedEntries++;
+                    continue;
+                }
+
+                String op = line.substring(0, separator);
+                String payload = line.substring(separator + 1);
+
+                if (op.equals(DELETE)) {
+                    int id;
+                    try {
+                        id = Integer.parseInt(payload.trim());
+                    } catch (NumberFormatException e) {
+                        skippedEntries++;
+                        continue;
+                    }
+                    Integer row = rowsById.remove(id);
+                    if (row != null) {
+                        deletedRows.set(row);
+                    }
+                    continue;
+                }
+
+                Transaction transaction = Transaction.fromCSVString(payload);
+                if (transaction == null) {
+                    skippedEntries++;
+                    continue;
+                }
+
+                Integer row = rowsById.get(transaction.getId());
+                if (row != null) {
+                    store.update(row, transaction);
+                } else if (op.equals(ADD) || op.equals(UPDATE)) {
+                    rowsById.put(transaction.getId(), store.add(transaction));
+                }
+            }
+        }
+
+        if (!deletedRows.isEmpty()) {
+            store.removeAll(deletedRows);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package src;
+
+public interface TransactionListener {
+    // Called after a row has been appended
+    void transactionAdded(TransactionStore store, int row);
+
+    // Called after a row has been rewritten; previous holds the values it replaced
+    void transactionUpdated(TransactionStore store, int row, Transaction previous);
+
+    // Called while the row still holds its values, just before it is removed
+    void transactionRemoved(TransactionStore store, int row);
+
+    // Called after older rows were paged in as rows [0, count), moving every existing row up by count.
+    // They are stored data rather than new transactions; by default each is reported as an addition.
+    default void transactionsPrepended(TransactionStore store, int count) {
+        for (int row = 0; row < count; row++) {
+            transactionAdded(store, row);
+        }
+    }
+}
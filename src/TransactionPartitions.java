@@ -0,0 +1,117 @@
+package src;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/*
+ * Where each month starts in transactions.csv, so recent months can be read without the rest.
+ * Loading from startOf(month) to the end of the file yields every row of that month and later
+ * ones; older data is the file prefix before it, so paging in keeps the file's row order.
+ *
+ * File: magic (int) | version (int) | csv size, csv modified (longs) | max id (int)
+ *       | first epoch month (int) | count (int) | first line offset per month (longs)
+ */
+public class TransactionPartitions {
+    private static final int MAGIC = 0x50464D50; // "PFMP"
+    private static final int VERSION = 1;
+    private static final long NONE = Long.MAX_VALUE;
+
+    private int firstMonth;
+    private long[] offsets = new long[0];
+    private int maxId;
+    // Minimum offset of any month at or after each slot, built on first lookup
+    private long[] suffixStart;
+
+    // Notes a line of the given month starting at the byte offset
+    public void record(int epochMonth, long offset, int id) {
+        maxId = Math.max(maxId, id);
+        if (offsets.length == 0) {
+            firstMonth = epochMonth;
+            offsets = new long[] { NONE };
+        } else if (epochMonth < firstMonth) {
+            int shift = firstMonth - epochMonth;
+            long[] grown = new long[offsets.length + shift];
+            Arrays.fill(grown, 0, shift, NONE);
+            System.arraycopy(offsets, 0, grown, shift, offsets.length);
+            offsets = grown;
+            firstMonth = epochMonth;
+        } else if (epochMonth - firstMonth >= offsets.length) {
+            int length = offsets.length;
+            offsets = Arrays.copyOf(offsets, epochMonth - firstMonth + 1);
+            Arrays.fill(offsets, length, offsets.length, NONE);
+        }
+        int slot = epochMonth - firstMonth;
+        offsets[slot] = Math.min(offsets[slot], offset);
+        suffixStart = null;
+    }
+
+    // Folds in the partitions recorded by another parser over a different part of the file
+    public void merge(TransactionPartitions other) {
+        for (int i = 0; i < other.offsets.length; i++) {
+            if (other.offsets[i] != NONE) {
+                record(other.firstMonth + i, other.offsets[i], other.maxId);
+            }
+        }
+        maxId = Math.max(maxId, other.maxId);
+    }
+
+    public int getMaxId() {
+        return maxId;
+    }
+
+    // File offset from which every row of the month and all later months can be read;
+    // fileSize when no row is that recent
+    public long startOf(int epochMonth, long fileSize) {
+        if (offsets.length == 0 || epochMonth - firstMonth >= offsets.length) return fileSize;
+        if (suffixStart == null) {
+            suffixStart = new long[offsets.length];
+            long start = NONE;
+            for (int i = offsets.length - 1; i >= 0; i--) {
+                start = Math.min(start, offsets[i]);
+                suffixStart[i] = start;
+            }
+        }
+        long start = suffixStart[Math.max(0, epochMonth - firstMonth)];
+        return Math.min(start, fileSize);
+    }
+
+    public void write(File file, File source) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(source.length());
+            out.writeLong(source.lastModified());
+            out.writeInt(maxId);
+            out.writeInt(firstMonth);
+            out.writeInt(offsets.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Returns null when the index is missing, unreadable or older than the source file
+    public static TransactionPartitions read(File file, File source) {
+        if (!file.exists() || !source.exists()) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (in.readLong() != source.length() || in.readLong() != source.lastModified()) return null;
+
+            TransactionPartitions partitions = new TransactionPartitions();
+            partitions.maxId = in.readInt();
+            partitions.firstMonth = in.readInt();
+            partitions.offsets = new long[in.readInt()];
+            for (int i = 0; i < partitions.offsets.length; i++) {
+                partitions.offsets[i] = in.readLong();
+            }
+            return partitions;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package src;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntPredicate;
+
+// Columnar rows with indexes maintained as listeners. A store is not thread-safe: one thread
+// changes it, and other threads may only read it through Ledger, which holds them off while a
+// change runs, or through a snapshot taken by Ledger.snapshot().
+public class TransactionStore {
+    public static final byte INCOME = 0;
+    public static final byte EXPENSE = 1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    // Epoch days are ints, which covers every date in these years
+    private static final int MAX_YEAR = 5_000_000;
+
+    // Column storage, one slot per row
+    private int[] ids;
+    private int[] epochDays;
+    private long[] amountCents;
+    private byte[] types;
+    private int[] categoryIds;
+    private String[] descriptions;
+    private int size;
+    // Ids are allocated in increasing order, so lookups can normally binary search
+    private boolean idsAscending = true;
+    // Set while a snapshot shares the columns; the next in-place change copies them first
+    private boolean shared;
+    private final boolean readOnly;
+
+    private final List<TransactionListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Secondary indexes, built on first use and then maintained as listeners. The getters are
+    // synchronized so readers running side by side build each index once
+    private SpendingAggregates aggregates;
+    private DateIndex dateIndex;
+    private DuplicateIndex duplicateIndex;
+    private DescriptionIndex descriptionIndex;
+
+    public TransactionStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TransactionStore(int capacity) {
+        capacity = Math.max(capacity, INITIAL_CAPACITY);
+        this.ids = new int[capacity];
+        this.epochDays = new int[capacity];
+        this.amountCents = new long[capacity];
+        this.types = new byte[capacity];
+        this.categoryIds = new int[capacity];
+        this.descriptions = new String[capacity];
+        this.readOnly = false;
+    }
+
+    private TransactionStore(TransactionStore source) {
+        this.ids = source.ids;
+        this.epochDays = source.epochDays;
+        this.amountCents = source.amountCents;
+        this.types = source.types;
+        this.categoryIds = source.categoryIds;
+        this.descriptions = source.descriptions;
+        this.size = source.size;
+        this.idsAscending = source.idsAscending;
+        this.readOnly = true;
+        // Queries on the view use the date index and running totals as of the same moment
+        this.dateIndex = source.getDateIndex().snapshot(this);
+        synchronized (source) {
+            this.aggregates = source.aggregates != null ? source.aggregates.copy() : null;
+        }
+    }
+
+    // Read-only view of the rows as they are now, sharing the columns instead of copying them.
+    // Appends only write past the view's size; the first edit, removal or page-in afterwards
+    // copies the columns, so the view never changes. Package-private: taking one marks the
+    // columns shared, so it must not overlap a change, and Ledger.snapshot() is the way in.
+    TransactionStore snapshot() {
+        shared = true;
+        return new TransactionStore(this);
+    }
+
+    // Row management
+    public int add(Transaction transaction) {
+        return add(transaction.getId(), typeCode(transaction.getType()),
+                   transaction.getAmountCents(), internCategory(transaction.getCategory()),
+                   transaction.getDescription(), (int) transaction.getDate().toEpochDay());
+    }
+
+    public int add(int id, byte type, long cents, int categoryId, String description, int epochDay) {
+        checkWritable();
+        ensureCapacity(size + 1);
+        int row = size;
+        if (row > 0 && ids[row - 1] >= id) idsAscending = false;
+        ids[row] = id;
+        types[row] = type;
+        amountCents[row] = cents;
+        categoryIds[row] = categoryId;
+        descriptions[row] = description;
+        epochDays[row] = epochDay;
+        size++;
+        for (TransactionListener listener : listeners) {
+            listener.transactionAdded(this, row);
+        }
+        return row;
+    }
+
+    // Appends every row of another store; category ids are shared through the Category registry
+    public void appendAll(TransactionStore other) {
+        checkWritable();
+        ensureCapacity(size + other.size);
+        int first = size;
+        if (!other.idsAscending || (first > 0 && other.size > 0 && ids[first - 1] >= other.ids[0])) {
+            idsAscending = false;
+        }
+        System.arraycopy(other.ids, 0, ids, first, other.size);
+        System.arraycopy(other.epochDays, 0, epochDays, first, other.size);
+        System.arraycopy(other.amountCents, 0, amountCents, first, other.size);
+        System.arraycopy(other.types, 0, types, first, other.size);
+        System.arraycopy(other.descriptions, 0, descriptions, first, other.size);
+        System.arraycopy(other.categoryIds, 0, categoryIds, first, other.size);
+        size += other.size;
+
+        for (int row = first; row < size; row++) {
+            for (TransactionListener listener : listeners) {
+                listener.transactionAdded(this, row);
+            }
+        }
+    }
+
+    // Places rows loaded from older storage ahead of the existing ones, keeping file order
+    public void prependAll(TransactionStore older) {
+        int count = older.size;
+        if (count == 0) return;
+        prepareInPlaceChange();
+        if (!older.idsAscending || (size > 0 && older.ids[count - 1] >= ids[0])) {
+            idsAscending = false;
+        }
+        ensureCapacity(size + count);
+        System.arraycopy(ids, 0, ids, count, size);
+        System.arraycopy(epochDays, 0, epochDays, count, size);
+        System.arraycopy(amountCents, 0, amountCents, count, size);
+        System.arraycopy(types, 0, types, count, size);
+        System.arraycopy(categoryIds, 0, categoryIds, count, size);
+        System.arraycopy(descriptions, 0, descriptions, count, size);
+        System.arraycopy(older.ids, 0, ids, 0, count);
+        System.arraycopy(older.epochDays, 0, epochDays, 0, count);
+        System.arraycopy(older.amountCents, 0, amountCents, 0, count);
+        System.arraycopy(older.types, 0, types, 0, count);
+        System.arraycopy(older.categoryIds, 0, categoryIds, 0, count);
+        System.arraycopy(older.descriptions, 0, descriptions, 0, count);
+        size += count;
+
+        for (TransactionListener listener : listeners) {
+            listener.transactionsPrepended(this, count);
+        }
+    }
+
+    public void update(int row, Transaction transaction) {
+        checkRow(row);
+        prepareInPlaceChange();
+        Transaction previous = listeners.isEmpty() ? null : get(row);
+        types[row] = typeCode(transaction.getType());
+        amountCents[row] = transaction.getAmountCents();
+        categoryIds[row] = internCategory(transaction.getCategory());
+        descriptions[row] = transaction.getDescription();
+        epochDays[row] = (int) transaction.getDate().toEpochDay();
+        for (TransactionListener listener : listeners) {
+            listener.transactionUpdated(this, row, previous);
+        }
+    }
+
+    public void remove(int row) {
+        checkRow(row);
+        prepareInPlaceChange();
+        for (TransactionListener listener : listeners) {
+            listener.transactionRemoved(this, row);
+        }
+        int tail = size - row - 1;
+        if (tail > 0) {
+            System.arraycopy(ids, row + 1, ids, row, tail);
+            System.arraycopy(epochDays, row + 1, epochDays, row, tail);
+            System.arraycopy(amountCents, row + 1, amountCents, row, tail);
+            System.arraycopy(types, row + 1, types, row, tail);
+            System.arraycopy(categoryIds, row + 1, categoryIds, row, tail);
+            System.arraycopy(descriptions, row + 1, descriptions, row, tail);
+        }
+        size--;
+        descriptions[size] = null;
+    }
+
+    // Removes every marked row in a single compaction pass
+    public void removeAll(BitSet rows) {
+        prepareInPlaceChange();
+        // Highest row first, so each reported row number is still valid had the removals above it
+        // happened one at a time, and every row still holds its values
+        for (int row = rows.previousSetBit(size - 1); row >= 0; row = rows.previousSetBit(row - 1)) {
+            for (TransactionListener listener : listeners) {
+                listener.transactionRemoved(this, row);
+            }
+        }
+        int target = 0;
+        for (int row = 0; row < size; row++) {
+            if (rows.get(row)) {
+                continue;
+            }
+            if (target != row) {
+                ids[target] = ids[row];
+                epochDays[target] = epochDays[row];
+                amountCents[target] = amountCents[row];
+                types[target] = types[row];
+                categoryIds[target] = categoryIds[row];
+                descriptions[target] = descriptions[row];
+            }
+            target++;
+        }
+        Arrays.fill(descriptions, target, size, null);
+        size = target;
+    }
+
+    public int findRow(int id) {
+        if (idsAscending) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            return row >= 0 ? row : -1;
+        }
+        for (int row = 0; row < size; row++) {
+            if (ids[row] == id) return row;
+        }
+        return -1;
+    }
+
+    // Rows holding any of the given ids (sorted ascending), returned in row order
+    public int[] findRows(int[] sortedIds) {
+        int[] rows = new int[sortedIds.length];
+        int count = 0;
+        if (idsAscending) {
+            int low = 0;
+            for (int id : sortedIds) {
+                // Dense matches are usually the very next row, so try it before searching
+                int row = low < size && ids[low] == id ? low : Arrays.binarySearch(ids, low, size, id);
+                if (row >= 0) {
+                    rows[count++] = row;
+                    low = row + 1;
+                } else {
+                    low = -row - 1;
+                }
+            }
+        } else {
+            for (int row = 0; row < size && count < rows.length; row++) {
+                if (Arrays.binarySearch(sortedIds, ids[row]) >= 0) rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    // Materializes a detached Transaction for display; edits must go through update()
+    public Transaction get(int row) {
+        checkRow(row);
+        return Transaction.view(ids[row], typeName(types[row]), amountCents[row],
+                                Category.getName(categoryIds[row]), descriptions[row],
+                                LocalDate.ofEpochDay(epochDays[row]));
+    }
+
+    public synchronized SpendingAggregates getAggregates() {
+        if (aggregates == null) {
+            aggregates = new SpendingAggregates(this);
+            addListener(aggregates);
+        }
+        return aggregates;
+    }
+
+    public synchronized DateIndex getDateIndex() {
+        if (dateIndex == null) {
+            dateIndex = new DateIndex(this);
+            addListener(dateIndex);
+        }
+        return dateIndex;
+    }
+
+    public synchronized DuplicateIndex getDuplicateIndex() {
+        if (duplicateIndex == null) {
+            duplicateIndex = new DuplicateIndex(this);
+            addListener(duplicateIndex);
+        }
+        return duplicateIndex;
+    }
+
+    public synchronized DescriptionIndex getDescriptionIndex() {
+        if (descriptionIndex == null) {
+            descriptionIndex = new DescriptionIndex(this);
+            addListener(descriptionIndex);
+        }
+        return descriptionIndex;
+    }
+
+    public void addListener(TransactionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TransactionListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    // Column accessors
+    public int getId(int row) { return ids[row]; }
+    public int getEpochDay(int row) { return epochDays[row]; }
+    public long getAmountCents(int row) { return amountCents[row]; }
+    public byte getType(int row) { return types[row]; }
+    public int getCategoryId(int row) { return categoryIds[row]; }
+    public String getCategory(int row) { return Category.getName(categoryIds[row]); }
+    public String getDescription(int row) { return descriptions[row]; }
+    public LocalDate getDate(int row) { return LocalDate.ofEpochDay(epochDays[row]); }
+    public boolean isIncome(int row) { return types[row] == INCOME; }
+    public boolean isExpense(int row) { return types[row] == EXPENSE; }
+
+    // Category ids come from the shared Category registry
+    public int internCategory(String category) {
+        return Category.intern(category);
+    }
+
+    public int lookupCategory(String category) {
+        return Category.lookup(category);
+    }
+
+    public String getCategoryName(int categoryId) {
+        return Category.getName(categoryId);
+    }
+
+    public int getCategoryCount() {
+        return Category.size();
+    }
+
+    // Row selection
+    public int[] selectRows(IntPredicate filter) {
+        int[] rows = new int[Math.min(size, 64)];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (filter.test(row)) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, Math.min(size, rows.length * 2));
+                }
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    // Rows dated within the range, oldest first, sliced out of the date index
+    public int[] selectDateRange(int fromEpochDay, int toEpochDay) {
+        return getDateIndex().rowsBetween(fromEpochDay, toEpochDay);
+    }
+
+    public int[] selectMonth(YearMonth month) {
+        return selectDateRange((int) month.atDay(1).toEpochDay(), (int) month.atEndOfMonth().toEpochDay());
+    }
+
+    // Sorts rows newest first; rows sharing a date keep their stored order
+    public void sortByDateDescending(int[] rows) {
+        long[] keys = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            keys[i] = ((long) -epochDays[rows[i]] << 32) | rows[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = (int) keys[i];
+        }
+    }
+
+    public long sumCents(int[] rows, byte type) {
+        long total = 0;
+        for (int row : rows) {
+            if (types[row] == type) {
+                total += amountCents[row];
+            }
+        }
+        return total;
+    }
+
+    // Conversions shared by loaders and views
+    public static byte typeCode(String type) {
+        return "INCOME".equalsIgnoreCase(type) ? INCOME : EXPENSE;
+    }
+
+    public static String typeName(byte type) {
+        return type == INCOME ? "INCOME" : "EXPENSE";
+    }
+
+    // Months are numbered year * 12 + (month - 1)
+    public static int epochMonth(YearMonth month) {
+        if (Math.abs(month.getYear()) > MAX_YEAR) {
+            throw new DateTimeException("Year out of range: " + month.getYear());
+        }
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    public static YearMonth toYearMonth(int epochMonth) {
+        return YearMonth.of(Math.floorDiv(epochMonth, 12), Math.floorMod(epochMonth, 12) + 1);
+    }
+
+    // Civil-calendar conversion of an epoch day without allocating a LocalDate
+    public static int epochMonth(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) return;
+        int capacity = Math.max(required, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        types = Arrays.copyOf(types, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        shared = false;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+    }
+
+    // Rows below size are about to be rewritten; give up any columns a snapshot still holds
+    private void prepareInPlaceChange() {
+        checkWritable();
+        if (shared) {
+            ids = ids.clone();
+            epochDays = epochDays.clone();
+            amountCents = amountCents.clone();
+            types = types.clone();
+            categoryIds = categoryIds.clone();
+            descriptions = descriptions.clone();
+            shared = false;
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range (size " + size + ")");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+#!/bin/bash
+
+echo
+echo "========================================"
+echo "  Personal Finance Manager - Tests"
+echo "========================================"
+echo
+
+echo "Compiling Java files..."
+rm -rf build/test
+mkdir -p build/test
+javac -encoding UTF-8 -d build/test src/*.java test/*.java
+
+if [ $? -ne 0 ]; then
+    echo
+    echo "❌ Compilation failed! Please check for errors."
+    exit 1
+fi
+
+# Pass part of a test name to run only the matching tests
+java -cp build/test test.TestRunner "$@"
@@ -0,0 +1,106 @@
+package test;
+
+import src.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static test.TestRunner.*;
+
+public class BackupStoreTest {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    static void register(TestRunner runner) {
+        runner.add("Backups share one object per distinct file content", () -> withTempDir(dir -> {
+            Path budget = write(dir.resolve("budget.csv"), "Month,Category,Amount\n");
+            Path transactions = write(dir.resolve("transactions.csv"), "ID,Type\n1,EXPENSE\n");
+            BackupStore store = new BackupStore(dir.resolve("backups"));
+
+            Path first = age(store.backup(Arrays.asList(budget, transactions)), 2);
+            write(transactions, "ID,Type\n1,EXPENSE\n2,INCOME\n");
+            Path second = store.backup(Arrays.asList(budget, transactions, dir.resolve("missing.csv")));
+
+            assertEquals(3L, (long) objects(dir).size());
+            assertEquals("ID,Type\n1,EXPENSE\n", read(first.resolve("transactions.csv")));
+            assertEquals("ID,Type\n1,EXPENSE\n2,INCOME\n", read(second.resolve("transactions.csv")));
+            assertTrue(!Files.exists(second.resolve("missing.csv")), "missing sources are skipped");
+        }));
+
+        runner.add("Pruning drops old backups and their objects but leaves shared objects read-only", () -> withTempDir(dir -> {
+            Path budget = write(dir.resolve("budget.csv"), "Month,Category,Amount\n");
+            Path transactions = write(dir.resolve("transactions.csv"), "v1\n");
+            BackupStore store = new BackupStore(dir.resolve("backups"), 2, 0, 0);
+
+            Path oldest = age(store.backup(Arrays.asList(budget, transactions)), 3);
+            write(transactions, "v2\n");
+            Path middle = age(store.backup(Arrays.asList(budget, transactions)), 2);
+            write(transactions, "v3\n");
+            Path newest = store.backup(Arrays.asList(budget, transactions));
+
+            assertEquals(Arrays.asList(middle, newest), store.listBackups());
+            assertTrue(!Files.exists(oldest), "the oldest backup is pruned");
+            // budget.csv is shared by all three; v1 is gone with the pruned backup
+            assertEquals(3L, (long) objects(dir).size());
+            for (Path object : objects(dir)) {
+                assertTrue(readOnly(object), "objects stay read-only: " + object);
+            }
+            assertEquals("Month,Category,Amount\n", read(middle.resolve("budget.csv")));
+            assertEquals("v2\n", read(middle.resolve("transactions.csv")));
+        }));
+
+        runner.add("Pruning keeps the newest backup of each recent day and month", () -> withTempDir(dir -> {
+            Path file = write(dir.resolve("transactions.csv"), "x\n");
+            BackupStore store = new BackupStore(dir.resolve("backups"), 1, 3, 0);
+            LocalDateTime now = LocalDateTime.now();
+            List<Path> made = new ArrayList<>();
+            for (int hoursAgo : new int[] { 120, 50, 49, 26, 25, 1 }) {
+                write(file, "x" + hoursAgo + "\n");
+                made.add(rename(store.backup(Collections.singletonList(file)), now.minusHours(hoursAgo)));
+            }
+            store.prune(now);
+
+            // Within the last three days, the newest of each day; the 120-hour one is too old
+            List<Path> kept = store.listBackups();
+            assertTrue(!kept.contains(made.get(0)), "older than the daily window");
+            assertTrue(kept.contains(made.get(5)), "newest backup");
+            assertEquals(objects(dir).size(), kept.size());
+        }));
+    }
+
+    private static Path write(Path file, String text) throws Exception {
+        return Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    // From the permission bits, since a test run as root may write to read-only files anyway
+    private static boolean readOnly(Path file) throws Exception {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            return !Files.getPosixFilePermissions(file).contains(PosixFilePermission.OWNER_WRITE);
+        }
+        return (Boolean) Files.getAttribute(file, "dos:readonly");
+    }
+
+    private static List<Path> objects(Path dir) throws Exception {
+        try (Stream<Path> list = Files.list(dir.resolve("backups").resolve("objects"))) {
+            return list.collect(Collectors.toList());
+        }
+    }
+
+    // Backups are named by the second they were taken, so move each one into the past
+    private static Path age(Path backup, int daysAgo) throws Exception {
+        return rename(backup, LocalDateTime.now().minusDays(daysAgo));
+    }
+
+    private static Path rename(Path backup, LocalDateTime time) throws Exception {
+        return Files.move(backup, backup.resolveSibling("backup_" + time.format(TIMESTAMP)));
+    }
+}
@@ -0,0 +1,99 @@
+package test;
+
+import src.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class BatchRunnerTest {
+    private static final String TRANSACTIONS = "ID,Type,Amount,Category,Description,Date\n"
+        + "1,INCOME,3000.00,Salary,pay,2024-11-30\n"
+        + "2,EXPENSE,45.50,Food & Dining,groceries,2024-12-02\n"
+        + "3,EXPENSE,20.00,Transportation,bus pass,2025-01-03\n"
+        + "4,EXPENSE,12.25,Food & Dining,lunch, with team,2025-01-15\n"
+        + "5,INCOME,3000.00,Salary,pay,2025-01-31\n";
+
+    static void register(TestRunner runner) {
+        runner.add("Batch report prints one JSON document with exact totals", () -> withTempDir(dir -> {
+            write(dir);
+            List<String> lines = new ArrayList<>();
+            int status = run(dir, lines, new StringBuilder(), "report", "monthly", "2025-01");
+
+            assertEquals(0, status);
+            assertEquals(1, lines.size());
+            String json = lines.get(0);
+            assertTrue(json.startsWith("{\"from\":\"2025-01\",\"to\":\"2025-01\",\"transactions\":3,"
+                                       + "\"income\":3000.00,\"expenses\":32.25,\"net\":2967.75"), json);
+        }));
+
+        runner.add("Batch carries on past bad commands and reports them in the exit status", () -> withTempDir(dir -> {
+            write(dir);
+            // The first full load writes the month index that later runs page through
+            run(dir, new ArrayList<>(), new StringBuilder(), "stats");
+            Path commands = Files.write(dir.resolve("commands.txt"), ("# comment\n"
+                + "report yearly 999999999\n"
+                + "report monthly 2025-13\n"
+                + "report monthly 2025-01\n"
+                + "report range 2025-02 2025-01\n"
+                + "bogus\n"
+                + "\n"
+                + "report yearly 2024\n"
+                + "stats\n").getBytes(StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            StringBuilder console = new StringBuilder();
+            int status = run(dir, lines, console, "batch", commands.toString());
+
+            assertEquals(1, status);
+            assertTrue(console.toString().contains("Loaded 3 transactions since 2025-01"), console.toString());
+            assertEquals(3, lines.size());
+            assertTrue(lines.get(0).contains("\"expenses\":32.25"), lines.get(0));
+            assertTrue(lines.get(1).startsWith("{\"from\":\"2024-01\",\"to\":\"2024-12\",\"transactions\":2,"), lines.get(1));
+            // The monthly reports read only recent months; stats pages the rest in and counts every row
+            assertTrue(lines.get(2).startsWith("{\"transactions\":5,"), lines.get(2));
+        }));
+
+        runner.add("Batch splits quoted arguments", () -> withTempDir(dir -> {
+            write(dir);
+            List<String> lines = new ArrayList<>();
+            Path commands = Files.write(dir.resolve("commands.txt"),
+                "export --category \"food & dining\" --from 2024-12-01\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals(0, run(dir, lines, new StringBuilder(), "batch", commands.toString()));
+            assertEquals(Arrays.asList("ID,Type,Amount,Category,Description,Date",
+                                       "2,EXPENSE,45.50,Food & Dining,groceries,2024-12-02",
+                                       "4,EXPENSE,12.25,Food & Dining,lunch, with team,2025-01-15"), lines);
+        }));
+    }
+
+    private static void write(Path dir) throws Exception {
+        Files.write(dir.resolve("transactions.csv"), TRANSACTIONS.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Runs a command as a fresh process would; results go to lines and progress messages to console
+    private static int run(Path dir, List<String> lines, StringBuilder console, String... command) throws Exception {
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        System.setOut(new PrintStream(messages, true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(messages, true, StandardCharsets.UTF_8));
+        int status;
+        try {
+            DataManager dataManager = new DataManager(dir.toString(), false, false, true);
+            PrintStream out = new PrintStream(results, true, StandardCharsets.UTF_8);
+            status = new BatchRunner(dataManager, out).run(command);
+            out.flush();
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+        console.append(messages.toString(StandardCharsets.UTF_8));
+        lines.addAll(Arrays.asList(results.toString(StandardCharsets.UTF_8).split("\n")));
+        lines.removeIf(String::isEmpty);
+        return status;
+    }
+}
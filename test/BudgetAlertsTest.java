@@ -0,0 +1,108 @@
+package test;
+
+import src.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class BudgetAlertsTest {
+    private static final YearMonth MARCH = YearMonth.of(2025, 3);
+    private static final int FOOD = Category.intern("Food & Dining");
+
+    static void register(TestRunner runner) {
+        runner.add("Budget alerts fire once per threshold and re-arm when spending falls back", () -> {
+            TransactionStore store = new TransactionStore();
+            List<String> fired = watch(store, budget(10000), 50, 80, 100);
+
+            store.add(food(4000));
+            assertEquals(Collections.emptyList(), fired);
+            store.add(food(2000));
+            store.add(food(500));
+            assertEquals(Arrays.asList("2025-03 50% 6000/10000"), fired);
+            // One change across two thresholds raises both
+            store.add(food(4000));
+            assertEquals(Arrays.asList("2025-03 50% 6000/10000", "2025-03 80% 10500/10000",
+                                       "2025-03 100% 10500/10000"), fired);
+
+            fired.clear();
+            store.remove(3);
+            store.add(food(3000));
+            assertEquals(Arrays.asList("2025-03 80% 9500/10000"), fired);
+        });
+
+        runner.add("Budget alerts follow edits by their difference and skip other months", () -> {
+            TransactionStore store = new TransactionStore();
+            List<String> fired = watch(store, budget(10000), 50, 80, 100);
+            store.add(food(4500));
+
+            Transaction edited = store.get(0);
+            edited.setAmountCents(4900);
+            store.update(0, edited);
+            assertEquals(Collections.emptyList(), fired);
+            edited.setAmountCents(5100);
+            store.update(0, edited);
+            assertEquals(Arrays.asList("2025-03 50% 5100/10000"), fired);
+
+            // Moved into a month of its own, the whole amount is new spending there
+            edited.setDate(LocalDate.of(2025, 4, 2));
+            edited.setAmountCents(8000);
+            store.update(0, edited);
+            assertEquals(Arrays.asList("2025-03 50% 5100/10000", "2025-04 50% 8000/10000",
+                                       "2025-04 80% 8000/10000"), fired);
+
+            fired.clear();
+            store.add(Transaction.ofCents("INCOME", 900000, "Salary", "pay", LocalDate.of(2025, 3, 31)));
+            store.add(Transaction.ofCents("EXPENSE", 900000, "Shopping", "unbudgeted", LocalDate.of(2025, 3, 31)));
+            TransactionStore older = new TransactionStore();
+            older.add(Transaction.ofCents("EXPENSE", 20000, "Food & Dining", "paged in", LocalDate.of(2025, 3, 1)));
+            store.prependAll(older);
+            assertEquals(Collections.emptyList(), fired);
+        });
+
+        runner.add("Budget alerts re-arm for a raised budget and read the configured thresholds", () -> {
+            TransactionStore store = new TransactionStore();
+            BudgetHistory history = budget(10000);
+            List<String> fired = watch(store, history, 100);
+            store.add(food(10000));
+            history.setBudgetCents(MARCH, FOOD, 20000);
+            store.add(food(10000));
+            assertEquals(Arrays.asList("2025-03 100% 10000/10000", "2025-03 100% 20000/20000"), fired);
+
+            String previous = System.getProperty("finance.alertThresholds");
+            try {
+                System.setProperty("finance.alertThresholds", "90%, 25");
+                assertEquals("[90, 25]", Arrays.toString(BudgetAlerts.configuredThresholds()));
+                System.setProperty("finance.alertThresholds", "0,x");
+                assertEquals("[50, 80, 100]", Arrays.toString(BudgetAlerts.configuredThresholds()));
+            } finally {
+                if (previous == null) {
+                    System.clearProperty("finance.alertThresholds");
+                } else {
+                    System.setProperty("finance.alertThresholds", previous);
+                }
+            }
+        });
+    }
+
+    private static BudgetHistory budget(long cents) {
+        BudgetHistory history = new BudgetHistory();
+        history.setBudgetCents(MARCH, FOOD, cents);
+        return history;
+    }
+
+    private static Transaction food(long cents) {
+        return Transaction.ofCents("EXPENSE", cents, "Food & Dining", "meal", LocalDate.of(2025, 3, 10));
+    }
+
+    // Alerts as "month threshold% spent/budget", in the order they fired
+    private static List<String> watch(TransactionStore store, BudgetHistory history, int... thresholds) {
+        List<String> fired = new ArrayList<>();
+        BudgetAlerts alerts = new BudgetAlerts(store, () -> history, thresholds);
+        alerts.addListener((month, categoryId, threshold, spent, budget) ->
+            fired.add(month + " " + threshold + "% " + spent + "/" + budget));
+        return fired;
+    }
+}
@@ -0,0 +1,84 @@
+package test;
+
+import src.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class BudgetHistoryTest {
+    private static final int FOOD = Category.intern("Food & Dining");
+    private static final int SHOPPING = Category.intern("Shopping");
+
+    static void register(TestRunner runner) {
+        runner.add("Budget history carries the latest earlier month forward", () -> {
+            BudgetHistory history = new BudgetHistory();
+            history.setBudgetCents(YearMonth.of(2025, 3), FOOD, 40000);
+            history.setBudgetCents(YearMonth.of(2025, 6), SHOPPING, 10000);
+
+            assertEquals(0L, history.getEffectiveBudget(YearMonth.of(2025, 2)).getTotalBudgetCents());
+            assertEquals(40000L, history.getEffectiveBudget(YearMonth.of(2025, 5)).getBudgetCents(FOOD));
+            assertEquals(null, history.getBudget(YearMonth.of(2025, 5)));
+            // Editing a month starts from what it carried forward, and later months follow it
+            assertEquals(40000L, history.getBudget(YearMonth.of(2025, 6)).getBudgetCents(FOOD));
+            assertEquals(10000L, history.getBudgetCents(TransactionStore.epochMonth(YearMonth.of(2030, 1)), SHOPPING));
+            assertEquals(0L, history.getBudgetCents(TransactionStore.epochMonth(YearMonth.of(2025, 4)), SHOPPING));
+            assertEquals(Arrays.asList(YearMonth.of(2025, 3), YearMonth.of(2025, 6)), history.getMonths());
+        });
+
+        runner.add("Budget history version moves with every budget change", () -> {
+            BudgetHistory history = new BudgetHistory();
+            long empty = history.getVersion();
+            history.setBudgetCents(YearMonth.of(2025, 3), FOOD, 40000);
+            long one = history.getVersion();
+            history.setBudgetCents(YearMonth.of(2025, 3), FOOD, 45000);
+            assertTrue(empty != one && one != history.getVersion(), "version should change on every edit");
+        });
+
+        runner.add("Yearly comparison resolves carried budgets month by month", () -> {
+            BudgetHistory history = new BudgetHistory();
+            history.setBudgetCents(YearMonth.of(2024, 11), FOOD, 30000);
+            history.setBudgetCents(YearMonth.of(2025, 4), FOOD, 50000);
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", 35000, "Food & Dining", "feast", LocalDate.of(2025, 2, 10)));
+            store.add(Transaction.ofCents("EXPENSE", 20000, "Food & Dining", "groceries", LocalDate.of(2025, 4, 3)));
+            store.add(Transaction.ofCents("EXPENSE", 999, "Shopping", "unbudgeted", LocalDate.of(2025, 4, 3)));
+
+            BudgetComparison comparison = history.compareYear(2025, store.getAggregates());
+            assertEquals(30000L, comparison.getBudgetCents(0, FOOD));
+            assertEquals(50000L, comparison.getBudgetCents(3, FOOD));
+            assertEquals(3 * 30000L + 9 * 50000L, comparison.getYearBudgetCents(FOOD));
+            assertEquals(55000L, comparison.getYearActualCents(FOOD));
+            assertEquals(1, comparison.getMonthsOverBudget(FOOD));
+            assertEquals("[" + FOOD + "]", Arrays.toString(comparison.getCategoryIds()));
+
+            // A year before any budget compares nothing
+            assertEquals(0, history.compareYear(2023, store.getAggregates()).getCategoryIds().length);
+        });
+
+        runner.add("Budget history survives a save and load with exact amounts", () -> withTempDir(dir -> {
+            BudgetHistory history = new BudgetHistory();
+            history.setBudgetCents(YearMonth.of(2025, 1), FOOD, 12345);
+            history.setBudgetCents(YearMonth.of(2025, 2), SHOPPING, 1);
+            DataManager dataManager = new DataManager(dir.toString());
+
+            PrintStream out = System.out;
+            System.setOut(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+            BudgetHistory loaded;
+            try {
+                dataManager.saveBudget(history);
+                loaded = dataManager.loadBudget();
+            } finally {
+                System.setOut(out);
+            }
+            assertEquals(history.toCSVString(), loaded.toCSVString());
+            assertEquals(history.getMonths(), loaded.getMonths());
+            assertEquals(12345L, loaded.getEffectiveBudget(YearMonth.of(2025, 8)).getBudgetCents(FOOD));
+        }));
+    }
+}
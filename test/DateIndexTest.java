@@ -0,0 +1,131 @@
+package test;
+
+import src.*;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class DateIndexTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    static void register(TestRunner runner) {
+        runner.add("Date index kept up through mixed changes matches a sort of the rows", () -> {
+            for (int seed = 0; seed < 5; seed++) {
+                Random random = new Random(seed);
+                TransactionStore store = new TransactionStore();
+                for (int i = 0; i < 200; i++) {
+                    store.add(expense(random));
+                }
+                DateIndex index = store.getDateIndex();
+                for (int step = 0; step < 2000; step++) {
+                    int action = random.nextInt(20);
+                    if (store.isEmpty() || action < 8) {
+                        // Mostly back-dated, so they are buffered rather than appended
+                        store.add(expense(random));
+                    } else if (action < 13) {
+                        int row = random.nextInt(store.size());
+                        Transaction moved = store.get(row);
+                        moved.setDate(START.plusDays(random.nextInt(730)));
+                        store.update(row, moved);
+                    } else if (action < 16) {
+                        store.remove(random.nextInt(store.size()));
+                    } else if (action < 17) {
+                        BitSet rows = new BitSet();
+                        for (int i = 0; i < 8; i++) rows.set(random.nextInt(store.size()));
+                        store.removeAll(rows);
+                    } else if (action < 18) {
+                        TransactionStore older = new TransactionStore();
+                        for (int i = 0; i < 3; i++) older.add(expense(random));
+                        store.prependAll(older);
+                    } else {
+                        assertEquals(expected(store, 0, Integer.MAX_VALUE), indexed(index, 0, Integer.MAX_VALUE));
+                    }
+                }
+
+                assertEquals(store.size(), index.size());
+                for (int i = 0; i < 20; i++) {
+                    int from = (int) START.plusDays(random.nextInt(730)).toEpochDay();
+                    int to = from + random.nextInt(90);
+                    assertEquals(expected(store, from, to), Arrays.toString(index.rowsBetween(from, to)));
+                }
+            }
+        });
+
+        runner.add("Date index keeps a back-dated row at the date it was edited to", () -> {
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", 100, "Shopping", "march", LocalDate.of(2025, 3, 1)));
+            DateIndex index = store.getDateIndex();
+            index.size();
+            // Buffered as a back-dated add, then moved before the index next settles
+            int row = store.add(Transaction.ofCents("EXPENSE", 200, "Shopping", "january", LocalDate.of(2025, 1, 1)));
+            Transaction moved = store.get(row);
+            moved.setDate(LocalDate.of(2025, 6, 1));
+            store.update(row, moved);
+
+            int june = (int) LocalDate.of(2025, 6, 1).toEpochDay();
+            assertEquals("[1]", Arrays.toString(index.rowsBetween(june, june)));
+            assertEquals("[0]", Arrays.toString(index.rowsBetween((int) LocalDate.of(2025, 1, 1).toEpochDay(), june - 1)));
+        });
+
+        runner.add("Date index ranges are inclusive and open-ended at MAX_VALUE", () -> {
+            TransactionStore store = new TransactionStore();
+            for (int day = 1; day <= 5; day++) {
+                store.add(Transaction.ofCents("EXPENSE", day, "Shopping", "day", LocalDate.of(2025, 1, day)));
+            }
+            DateIndex index = store.getDateIndex();
+            int second = (int) LocalDate.of(2025, 1, 2).toEpochDay();
+            assertEquals("[1, 2, 3]", Arrays.toString(index.rowsBetween(second, second + 2)));
+            assertEquals("[2, 3, 4]", Arrays.toString(index.rowsBetween(second + 1, Integer.MAX_VALUE)));
+            assertEquals(0, index.rowsBetween(second + 10, second + 20).length);
+            assertEquals(4, index.positionOf(second + 3));
+        });
+
+        runner.add("Date index walked backwards pages every row newest first", () -> {
+            Random random = new Random(7);
+            TransactionStore store = new TransactionStore();
+            for (int i = 0; i < 123; i++) {
+                store.add(expense(random));
+            }
+            DateIndex index = store.getDateIndex();
+            List<Integer> walked = new ArrayList<>();
+            for (int top = index.size() - 1; top >= 0; top -= 50) {
+                for (int position = top; position >= Math.max(0, top - 49); position--) {
+                    walked.add(index.rowAt(position));
+                }
+            }
+            List<Integer> expected = new ArrayList<>();
+            for (int row = 0; row < store.size(); row++) expected.add(row);
+            expected.sort(Comparator.comparingInt(store::getEpochDay).thenComparingInt(row -> row).reversed());
+            assertEquals(expected, walked);
+
+            // Jumping to a date lands on the last row on or before it
+            for (int i = 0; i < 50; i++) {
+                int day = (int) START.plusDays(random.nextInt(730)).toEpochDay();
+                int top = index.positionOf(day + 1) - 1;
+                assertTrue(top < 0 || index.dayAt(top) <= day, "row after " + day);
+                assertTrue(top + 1 == index.size() || index.dayAt(top + 1) > day, "row missed before " + day);
+            }
+        });
+    }
+
+    private static Transaction expense(Random random) {
+        return Transaction.ofCents("EXPENSE", 1 + random.nextInt(1000), "Shopping", "row",
+                                   START.plusDays(random.nextInt(730)));
+    }
+
+    private static String indexed(DateIndex index, int from, int to) {
+        return Arrays.toString(index.rowsBetween(from, to));
+    }
+
+    // Rows in range ordered by (day, row), by brute force
+    private static String expected(TransactionStore store, int from, int to) {
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < store.size(); row++) {
+            if (store.getEpochDay(row) >= from && store.getEpochDay(row) <= to) rows.add(row);
+        }
+        rows.sort(Comparator.comparingInt(store::getEpochDay).thenComparingInt(row -> row));
+        return rows.toString();
+    }
+}
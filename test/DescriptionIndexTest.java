@@ -0,0 +1,93 @@
+package test;
+
+import src.*;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class DescriptionIndexTest {
+    private static final String[] WORDS = {
+        "coffee", "coffeehouse", "cafe", "corner", "bus", "business", "rent", "refund", "amazon", "Amazon.com", "2025"
+    };
+    private static final String[] QUERIES = {
+        "coffee", "cof", "c", "bus", "busi", "corner cafe", "re", "amazon com", "AMAZ", "2025 rent", "zzz", "", "  ,  "
+    };
+
+    static void register(TestRunner runner) {
+        runner.add("Description search kept up through changes matches a scan of the words", () -> {
+            Random random = new Random(18);
+            TransactionStore store = new TransactionStore();
+            for (int i = 0; i < 300; i++) {
+                store.add(row(random));
+            }
+            DescriptionIndex index = store.getDescriptionIndex();
+            for (int step = 0; step < 3000; step++) {
+                int action = random.nextInt(10);
+                if (store.isEmpty() || action < 4) {
+                    store.add(row(random));
+                } else if (action < 7) {
+                    int row = random.nextInt(store.size());
+                    Transaction edited = store.get(row);
+                    edited.setDescription(description(random));
+                    store.update(row, edited);
+                } else if (action < 9) {
+                    store.remove(random.nextInt(store.size()));
+                } else {
+                    TransactionStore older = new TransactionStore();
+                    older.add(row(random));
+                    store.prependAll(older);
+                }
+                if (step % 100 == 0) {
+                    for (String query : QUERIES) {
+                        assertEquals(scan(store, query), Arrays.toString(index.searchRows(store, query)));
+                    }
+                }
+            }
+        });
+
+        runner.add("Description search matches every term as a word prefix", () -> {
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", 450, "Food & Dining", "Coffee at the corner-cafe", LocalDate.of(2025, 1, 1)));
+            store.add(Transaction.ofCents("EXPENSE", 120, "Transportation", "bus to work", LocalDate.of(2025, 1, 2)));
+            store.add(Transaction.ofCents("EXPENSE", 900, "Shopping", "Cafe table", LocalDate.of(2025, 1, 3)));
+            DescriptionIndex index = store.getDescriptionIndex();
+
+            assertEquals("[0, 2]", Arrays.toString(index.searchRows(store, "caf")));
+            assertEquals("[0]", Arrays.toString(index.searchRows(store, "corner CAFE")));
+            assertEquals("[]", Arrays.toString(index.searchRows(store, "orner")));
+            assertEquals("[]", Arrays.toString(index.searchRows(store, "bus cafe")));
+            assertEquals(Arrays.asList("coffee", "at", "the", "corner", "cafe"),
+                         DescriptionIndex.tokenize("Coffee at the corner-cafe"));
+        });
+    }
+
+    private static Transaction row(Random random) {
+        return Transaction.ofCents("EXPENSE", 100, "Shopping", description(random), LocalDate.of(2025, 1, 1));
+    }
+
+    private static String description(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            sb.append(i == 0 ? "" : random.nextBoolean() ? " " : "-").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    // Rows whose description has a word starting with every query term, by brute force
+    private static String scan(TransactionStore store, String query) {
+        List<String> terms = DescriptionIndex.tokenize(query);
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < store.size() && !terms.isEmpty(); row++) {
+            List<String> words = DescriptionIndex.tokenize(store.getDescription(row));
+            boolean all = true;
+            for (String term : terms) {
+                all &= words.stream().anyMatch(word -> word.startsWith(term));
+            }
+            if (all) rows.add(row);
+        }
+        return rows.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package test;
+
+import src.*;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class DuplicateIndexTest {
+    static void register(TestRunner runner) {
+        runner.add("Duplicate index counts match a map through random adds and removes", () -> {
+            TransactionStore empty = new TransactionStore();
+            DuplicateIndex index = new DuplicateIndex(empty);
+            Map<Long, Integer> expected = new HashMap<>();
+            Random random = new Random(17);
+            // A small key space forces long probe chains and many deletions inside them
+            long[] fingerprints = new long[300];
+            for (int i = 0; i < fingerprints.length; i++) fingerprints[i] = random.nextLong() | 1;
+            for (int step = 0; step < 50_000; step++) {
+                long fingerprint = fingerprints[random.nextInt(fingerprints.length)];
+                if (random.nextInt(3) == 0) {
+                    index.add(fingerprint);
+                    expected.merge(fingerprint, 1, Integer::sum);
+                } else {
+                    index.remove(fingerprint);
+                    expected.computeIfPresent(fingerprint, (key, count) -> count > 1 ? count - 1 : null);
+                }
+            }
+            assertEquals(expected.size(), index.size());
+            for (long fingerprint : fingerprints) {
+                assertEquals((int) expected.getOrDefault(fingerprint, 0), index.count(fingerprint));
+            }
+        });
+
+        runner.add("Duplicate index groups copies that differ only in case and spacing", () -> {
+            TransactionStore store = new TransactionStore();
+            LocalDate day = LocalDate.of(2025, 2, 3);
+            store.add(Transaction.ofCents("EXPENSE", 450, "Food & Dining", "Corner  Cafe", day));
+            store.add(Transaction.ofCents("EXPENSE", 450, "Food & Dining", "lunch", day));
+            store.add(Transaction.ofCents("EXPENSE", 450, "Food & Dining", " corner cafe ", day));
+            store.add(Transaction.ofCents("EXPENSE", 451, "Food & Dining", "corner cafe", day));
+            store.add(Transaction.ofCents("EXPENSE", 450, "Shopping", "corner cafe", day));
+            store.add(Transaction.ofCents("EXPENSE", 450, "Food & Dining", "lunch", day));
+            store.add(Transaction.ofCents("EXPENSE", 450, "Food & Dining", "CORNER CAFE", day));
+
+            assertEquals("[[0, 2, 6], [1, 5]]", groups(store.getDuplicateIndex().findDuplicates(store)));
+        });
+
+        runner.add("Duplicate index stays in step with edits and deletes", () -> {
+            TransactionStore store = new TransactionStore();
+            LocalDate day = LocalDate.of(2025, 2, 3);
+            store.add(Transaction.ofCents("EXPENSE", 450, "Shopping", "socks", day));
+            store.add(Transaction.ofCents("EXPENSE", 450, "Shopping", "socks", day));
+            DuplicateIndex index = store.getDuplicateIndex();
+            assertEquals(2, index.count(DuplicateIndex.fingerprint(store, 0)));
+
+            Transaction edited = store.get(1);
+            edited.setAmountCents(999);
+            store.update(1, edited);
+            assertEquals(1, index.count(DuplicateIndex.fingerprint(store, 0)));
+            assertEquals("[]", groups(index.findDuplicates(store)));
+
+            store.add(Transaction.ofCents("EXPENSE", 999, "Shopping", "Socks", day));
+            assertEquals("[[1, 2]]", groups(index.findDuplicates(store)));
+            store.remove(1);
+            assertEquals("[]", groups(index.findDuplicates(store)));
+            assertEquals(2, index.size());
+        });
+
+        runner.add("Duplicate index never groups different rows whose fingerprints collide", () -> {
+            // With the description fixed, the day and the amount are mixed in one after the other,
+            // so for any two days there is an amount that gives the second row the first one's hash
+            String description = "rent";
+            long hash = 0xCBF29CE484222325L;
+            for (char c : description.toCharArray()) hash = (hash ^ c) * 0x100000001B3L;
+            int firstDay = (int) LocalDate.of(2025, 1, 1).toEpochDay();
+            int secondDay = firstDay + 1;
+            long firstCents = 120000;
+            long secondCents = ((hash ^ firstDay) * 0x9E3779B97F4A7C15L) ^ firstCents
+                             ^ ((hash ^ secondDay) * 0x9E3779B97F4A7C15L);
+
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", firstCents, "Bills & Utilities", description,
+                                          LocalDate.ofEpochDay(firstDay)));
+            store.add(Transaction.ofCents("EXPENSE", secondCents, "Bills & Utilities", description,
+                                          LocalDate.ofEpochDay(secondDay)));
+            assertEquals(DuplicateIndex.fingerprint(store, 0), DuplicateIndex.fingerprint(store, 1));
+            assertEquals(2, store.getDuplicateIndex().count(DuplicateIndex.fingerprint(store, 0)));
+
+            assertEquals("[]", groups(store.getDuplicateIndex().findDuplicates(store)));
+            store.add(Transaction.ofCents("EXPENSE", secondCents, "Bills & Utilities", "Rent",
+                                          LocalDate.ofEpochDay(secondDay)));
+            assertEquals("[[1, 2]]", groups(store.getDuplicateIndex().findDuplicates(store)));
+        });
+    }
+
+    private static String groups(List<int[]> groups) {
+        List<String> text = new ArrayList<>();
+        for (int[] group : groups) text.add(Arrays.toString(group));
+        return text.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package test;
+
+import src.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class LedgerServerTest {
+    static void register(TestRunner runner) {
+        runner.add("JSON API serves reports, pages and exports from the ledger", () -> serve(server -> {
+            String report = get(server, "/api/reports/monthly?month=2025-01", 200);
+            assertTrue(report.startsWith("{\"from\":\"2025-01\",\"to\":\"2025-01\",\"transactions\":2,"
+                                         + "\"income\":3000.00,\"expenses\":12.25,\"net\":2987.75"), report);
+
+            String page = get(server, "/api/transactions?type=expense&limit=1&offset=1", 200);
+            assertTrue(page.startsWith("{\"total\":2,\"offset\":1,\"limit\":1,\"transactions\":[{\"id\":"), page);
+            assertTrue(page.contains("\"groceries\""), page);
+
+            String csv = get(server, "/api/export?category=food%20%26%20dining", 200);
+            assertEquals(3, csv.split("\n").length);
+            assertTrue(csv.contains("lunch, with team"), csv);
+        }));
+
+        runner.add("JSON API answers bad parameters with 400 and unknown paths with 404", () -> serve(server -> {
+            assertTrue(get(server, "/api/reports/monthly?month=2025-13", 400).startsWith("{\"error\":"), "bad month");
+            assertTrue(get(server, "/api/reports/yearly?year=999999999", 400).startsWith("{\"error\":"), "huge year");
+            assertTrue(get(server, "/api/budget?year=-999999999", 400).startsWith("{\"error\":"), "negative year");
+            get(server, "/api/transactions?from=yesterday", 400);
+            get(server, "/api/transactions?limit=-1", 400);
+            get(server, "/api/nothing", 404);
+            // The server is still up after the failures
+            get(server, "/api/stats", 200);
+        }));
+    }
+
+    private interface ServerTest {
+        void run(LedgerServer server) throws Exception;
+    }
+
+    private static void serve(ServerTest test) throws Exception {
+        TransactionStore store = new TransactionStore();
+        store.add(Transaction.ofCents("EXPENSE", 4550, "Food & Dining", "groceries", LocalDate.of(2024, 12, 2)));
+        store.add(Transaction.ofCents("EXPENSE", 1225, "Food & Dining", "lunch, with team", LocalDate.of(2025, 1, 15)));
+        store.add(Transaction.ofCents("INCOME", 300000, "Salary", "pay", LocalDate.of(2025, 1, 31)));
+        BudgetHistory budgets = new BudgetHistory();
+        budgets.setBudgetCents(YearMonth.of(2025, 1), Category.intern("Food & Dining"), 20000);
+        LedgerServer server = new LedgerServer(new Ledger(store), () -> budgets, ArrayList::new);
+        server.start(0);
+        try {
+            test.run(server);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static String get(LedgerServer server, String path, int expectedStatus) throws Exception {
+        HttpURLConnection connection =
+            (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        try {
+            assertEquals(expectedStatus, connection.getResponseCode());
+            InputStream body = expectedStatus < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            body.transferTo(bytes);
+            body.close();
+            return bytes.toString(StandardCharsets.UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
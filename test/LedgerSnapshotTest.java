@@ -0,0 +1,90 @@
+package test;
+
+import src.*;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class LedgerSnapshotTest {
+    static void register(TestRunner runner) {
+        runner.add("Ledger snapshot round-trips transactions, monthly budgets and goals", () -> withTempDir(dir -> {
+            TransactionStore store = sampleStore();
+            BudgetHistory budgets = new BudgetHistory();
+            int food = Category.intern("Food & Dining");
+            int transport = Category.intern("Transportation");
+            budgets.setBudgetCents(YearMonth.of(2025, 1), food, 40000);
+            budgets.setBudgetCents(YearMonth.of(2025, 4), transport, 12050);
+            SavingsGoal goal = SavingsGoal.ofCents("Holiday, summer", 150000, LocalDate.of(2026, 6, 1), "beach");
+            goal.addToSavingsCents(2575);
+
+            File file = dir.resolve("ledger.snapshot").toFile();
+            new LedgerSnapshot(file).write(store, budgets, Collections.singletonList(goal));
+            LedgerSnapshot loaded = new LedgerSnapshot(file);
+            assertTrue(loaded.read(), "snapshot should read back");
+
+            TransactionStore restored = loaded.getTransactions();
+            assertEquals(store.size(), restored.size());
+            for (int row = 0; row < store.size(); row++) {
+                assertEquals(store.get(row).toCSVString(), restored.get(row).toCSVString());
+            }
+
+            BudgetHistory restoredBudgets = loaded.getBudgets();
+            assertEquals(budgets.getMonths(), restoredBudgets.getMonths());
+            // April carries January's food budget forward alongside its own transport budget
+            assertEquals(40000L, restoredBudgets.getBudget(YearMonth.of(2025, 4)).getBudgetCents(food));
+            assertEquals(12050L, restoredBudgets.getBudget(YearMonth.of(2025, 4)).getBudgetCents(transport));
+            assertEquals(0L, restoredBudgets.getBudget(YearMonth.of(2025, 1)).getBudgetCents(transport));
+
+            assertEquals(1, loaded.getGoals().size());
+            assertEquals(goal.toCSVString(), loaded.getGoals().get(0).toCSVString());
+        }));
+
+        runner.add("Ledger snapshot with a damaged body is rejected", () -> withTempDir(dir -> {
+            File file = dir.resolve("ledger.snapshot").toFile();
+            new LedgerSnapshot(file).write(sampleStore(), new BudgetHistory(), new ArrayList<>());
+            try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+                long position = raw.length() - 3;
+                raw.seek(position);
+                int value = raw.read();
+                raw.seek(position);
+                raw.write(value ^ 0xFF);
+            }
+            assertTrue(!new LedgerSnapshot(file).read(), "a CRC mismatch must not load");
+        }));
+
+        runner.add("Ledger snapshot older than its source files is rejected", () -> withTempDir(dir -> {
+            Path csv = dir.resolve("transactions.csv");
+            Files.write(csv, "ID,Type,Amount,Category,Description,Date\n".getBytes(StandardCharsets.UTF_8));
+            File file = dir.resolve("ledger.snapshot").toFile();
+            new LedgerSnapshot(file, csv.toFile()).write(sampleStore(), new BudgetHistory(), new ArrayList<>());
+            assertTrue(new LedgerSnapshot(file, csv.toFile()).read(), "fresh snapshot should read back");
+
+            Files.write(csv, "1,EXPENSE,1.00,Shopping,x,2025-01-01\n".getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.APPEND);
+            assertTrue(!new LedgerSnapshot(file, csv.toFile()).read(), "a changed source file must win");
+        }));
+
+        runner.add("Ledger snapshot that is missing or truncated is rejected", () -> withTempDir(dir -> {
+            File file = dir.resolve("ledger.snapshot").toFile();
+            assertTrue(!new LedgerSnapshot(file).read(), "missing file");
+            Files.write(file.toPath(), new byte[] { 0x50, 0x46 });
+            assertTrue(!new LedgerSnapshot(file).read(), "truncated file");
+        }));
+    }
+
+    static TransactionStore sampleStore() {
+        TransactionStore store = new TransactionStore();
+        store.add(Transaction.ofCents("INCOME", 320000, "Salary", "January pay", LocalDate.of(2025, 1, 31)));
+        store.add(Transaction.ofCents("EXPENSE", 1999, "Food & Dining", "lunch, with a comma", LocalDate.of(2025, 1, 3)));
+        store.add(Transaction.ofCents("EXPENSE", -500, "Shopping", "refund", LocalDate.of(2025, 2, 14)));
+        store.add(Transaction.ofCents("EXPENSE", 12345678901L, "Transportation", "ünïcødé", LocalDate.of(1999, 12, 31)));
+        return store;
+    }
+}
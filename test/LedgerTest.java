@@ -0,0 +1,123 @@
+package test;
+
+import src.*;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static test.TestRunner.*;
+
+public class LedgerTest {
+    static void register(TestRunner runner) {
+        runner.add("Ledger snapshot is unaffected by later adds, edits and deletes", () -> {
+            TransactionStore store = new TransactionStore();
+            Ledger ledger = new Ledger(store);
+            for (int i = 0; i < 500; i++) {
+                store.add(expense(100 + i, LocalDate.of(2025, 1 + i % 12, 1 + i % 28)));
+            }
+            store.getAggregates();
+
+            TransactionStore snapshot = ledger.snapshot();
+            String before = describe(snapshot);
+            ledger.write(() -> {
+                for (int i = 0; i < 200; i++) {
+                    store.add(expense(7, LocalDate.of(2024, 1 + i % 12, 5)));
+                }
+                Transaction moved = store.get(3);
+                moved.setDate(LocalDate.of(2020, 1, 1));
+                moved.setAmountCents(1);
+                store.update(3, moved);
+                BitSet rows = new BitSet();
+                rows.set(10, 120);
+                store.removeAll(rows);
+                store.remove(0);
+            });
+
+            assertEquals(before, describe(snapshot));
+            assertTrue(!before.equals(describe(ledger.snapshot())), "the live ledger should have moved on");
+        });
+
+        runner.add("Ledger snapshot is read-only", () -> {
+            TransactionStore store = new TransactionStore();
+            store.add(expense(100, LocalDate.of(2025, 1, 1)));
+            TransactionStore snapshot = new Ledger(store).snapshot();
+            assertThrows(UnsupportedOperationException.class,
+                         () -> snapshot.add(expense(1, LocalDate.of(2025, 1, 2))));
+            assertThrows(UnsupportedOperationException.class, () -> snapshot.remove(0));
+        });
+
+        runner.add("Ledger snapshot date ranges match a scan of the same rows", () -> {
+            TransactionStore store = new TransactionStore();
+            Ledger ledger = new Ledger(store);
+            for (int i = 0; i < 2000; i++) {
+                store.add(expense(i, LocalDate.of(2025, 1, 1).plusDays((i * 37) % 365)));
+            }
+            TransactionStore snapshot = ledger.snapshot();
+            ledger.write(() -> store.add(expense(1, LocalDate.of(2025, 3, 15))));
+
+            TransactionFilter march = TransactionFilter.all().between(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+            int[] indexed = march.select(snapshot);
+            int[] scanned = snapshot.selectRows(row -> march.test(snapshot, row));
+            assertEquals(Arrays.toString(scanned), Arrays.toString(indexed));
+        });
+
+        runner.add("Ledger readers see whole changes while a writer inserts", () -> {
+            TransactionStore store = new TransactionStore();
+            Ledger ledger = new Ledger(store);
+            store.getAggregates();
+            store.getDateIndex();
+            AtomicBoolean done = new AtomicBoolean();
+            ExecutorService readers = Executors.newFixedThreadPool(3);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                results.add(readers.submit(() -> {
+                    int checks = 0;
+                    while (!done.get()) {
+                        TransactionStore snapshot = ledger.snapshot();
+                        // Every row is 1.00, so any torn view shows up as a mismatched total
+                        long expected = 100L * snapshot.size();
+                        assertEquals(expected, new ReportEngine(snapshot).computeYear(2025).getExpenseCents());
+                        StringWriter csv = new StringWriter();
+                        new TransactionExporter(snapshot).write(csv, TransactionFilter.all());
+                        assertEquals(snapshot.size() + 1L, csv.toString().lines().count());
+                        checks++;
+                    }
+                    return checks;
+                }));
+            }
+            try {
+                for (int i = 0; i < 20_000; i++) {
+                    Transaction transaction = expense(100, LocalDate.of(2025, 1 + i % 12, 1 + i % 28));
+                    ledger.write(() -> store.add(transaction));
+                }
+            } finally {
+                done.set(true);
+                readers.shutdown();
+            }
+            for (Future<Integer> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(20_000, store.size());
+        });
+    }
+
+    private static Transaction expense(long cents, LocalDate date) {
+        return Transaction.ofCents("EXPENSE", cents, "Shopping", "row", date);
+    }
+
+    private static String describe(TransactionStore store) {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < store.size(); row++) {
+            sb.append(store.get(row).toCSVString()).append('\n');
+        }
+        DateIndex index = store.getDateIndex();
+        for (int position = 0; position < index.size(); position++) {
+            sb.append(index.rowAt(position)).append(':').append(index.dayAt(position)).append(' ');
+        }
+        sb.append('\n').append(new ReportEngine(store).computeYear(2025).getExpenseCents());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package test;
+
+import src.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+import static test.TestRunner.*;
+
+public class MappedTransactionLoaderTest {
+    private static final String HEADER = "ID,Type,Amount,Category,Description,Date\n";
+
+    static void register(TestRunner runner) {
+        runner.add("Mapped loader reads every field of well-formed rows", () -> withTempDir(dir -> {
+            Path file = dir.resolve("transactions.csv");
+            Files.write(file, (HEADER
+                + "1,INCOME,2500.00,Salary,March pay,2025-03-01\n"
+                + "2,EXPENSE,19.99,Food & Dining,lunch, with friends,2025-03-02\r\n"
+                + "3,EXPENSE,0.1,Transportation,bus,2025-03-03").getBytes(StandardCharsets.UTF_8));
+
+            TransactionStore store = new TransactionStore();
+            MappedTransactionLoader loader = new MappedTransactionLoader(store);
+            loader.load(file);
+
+            assertEquals(3, store.size());
+            assertEquals(0, loader.getSkippedRows());
+            assertEquals(3, loader.getMaxId());
+            assertEquals(TransactionStore.INCOME, store.getType(0));
+            assertEquals(250000L, store.getAmountCents(0));
+            assertEquals("Salary", store.getCategory(0));
+            // The description keeps its own commas; the date is the last field
+            assertEquals("lunch, with friends", store.getDescription(1));
+            assertEquals(LocalDate.of(2025, 3, 2), store.getDate(1));
+            assertEquals(10L, store.getAmountCents(2));
+        }));
+
+        runner.add("Mapped loader skips malformed rows instead of loading them as zero", () -> withTempDir(dir -> {
+            Path file = dir.resolve("transactions.csv");
+            Files.write(file, (HEADER
+                + "1,EXPENSE,-,Food & Dining,no digits,2025-01-01\n"
+                + "2,EXPENSE,.,Food & Dining,no digits,2025-01-01\n"
+                + "3,EXPENSE,12.x,Food & Dining,bad amount,2025-01-01\n"
+                + "4,EXPENSE,5.00,Food & Dining,bad date,2025-13-01\n"
+                + "x,EXPENSE,5.00,Food & Dining,bad id,2025-01-01\n"
+                + "6,EXPENSE,5.00\n"
+                + "7,EXPENSE,.5,Food & Dining,fraction only,2025-01-01\n").getBytes(StandardCharsets.UTF_8));
+
+            TransactionStore store = new TransactionStore();
+            MappedTransactionLoader loader = new MappedTransactionLoader(store);
+            loader.load(file);
+
+            assertEquals(1, store.size());
+            assertEquals(6, loader.getSkippedRows());
+            assertEquals(7, store.getId(0));
+            assertEquals(50L, store.getAmountCents(0));
+        }));
+
+        runner.add("Mapped loader gives the same rows in the same order when parsing in parallel", () -> withTempDir(dir -> {
+            Path file = dir.resolve("transactions.csv");
+            StringBuilder csv = new StringBuilder(HEADER);
+            for (int i = 1; i <= 60_000; i++) {
+                csv.append(i).append(i % 7 == 0 ? ",INCOME," : ",EXPENSE,")
+                   .append(i % 1000).append('.').append(i % 100 < 10 ? "0" : "").append(i % 100)
+                   .append(",Shopping,item number ").append(i).append(" from the test ledger,")
+                   .append(LocalDate.of(2020, 1, 1).plusDays(i % 1500)).append('\n');
+            }
+            Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+
+            TransactionStore sequential = new TransactionStore();
+            new MappedTransactionLoader(sequential).load(file);
+            TransactionStore parallel = new TransactionStore();
+            new MappedTransactionLoader(parallel).load(file, new ForkJoinPool(4));
+
+            assertEquals(60_000, sequential.size());
+            assertEquals(sequential.size(), parallel.size());
+            for (int row = 0; row < sequential.size(); row++) {
+                assertEquals(sequential.get(row).toCSVString(), parallel.get(row).toCSVString());
+            }
+        }));
+    }
+}
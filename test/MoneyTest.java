@@ -0,0 +1,37 @@
+package test;
+
+import src.Money;
+
+import static test.TestRunner.*;
+
+public class MoneyTest {
+    static void register(TestRunner runner) {
+        runner.add("Money parses plain, signed and formatted amounts", () -> {
+            assertEquals(1250L, Money.parse("12.5"));
+            assertEquals(1999L, Money.parse("19.99"));
+            assertEquals(10L, Money.parse("0.1"));
+            assertEquals(-450L, Money.parse("-4.5"));
+            assertEquals(123456L, Money.parse("$1,234.56"));
+            assertEquals(700L, Money.parse(" 7 "));
+        });
+
+        runner.add("Money rounds digits past the cents half up", () -> {
+            assertEquals(346L, Money.parse("3.455"));
+            assertEquals(345L, Money.parse("3.454"));
+            assertEquals(-346L, Money.parse("-3.455"));
+        });
+
+        runner.add("Money rejects text without digits", () -> {
+            assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+            assertThrows(NumberFormatException.class, () -> Money.parse("."));
+            assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+        });
+
+        runner.add("Money formats cents back to the data file layout", () -> {
+            assertEquals("1234.56", Money.format(123456));
+            assertEquals("-0.05", Money.format(-5));
+            assertEquals("0.00", Money.format(0));
+            assertEquals(98765L, Money.parse(Money.format(98765)));
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package test;
+
+import src.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static test.TestRunner.*;
+
+public class ReportCacheTest {
+    private static final int MARCH = TransactionStore.epochMonth(YearMonth.of(2025, 3));
+    private static final int JANUARY = TransactionStore.epochMonth(YearMonth.of(2025, 1));
+
+    static void register(TestRunner runner) {
+        runner.add("Report cache drops only entries covering a changed month", () -> {
+            TransactionStore store = new TransactionStore();
+            ReportCache cache = new ReportCache();
+            store.addListener(cache);
+            cache.put(ReportCache.MONTHLY, MARCH, MARCH, 0, "march");
+            cache.put(ReportCache.YEARLY, JANUARY, JANUARY + 11, 0, "2025");
+
+            store.add(expense(LocalDate.of(2025, 4, 9)));
+            assertEquals("march", cache.get(ReportCache.MONTHLY, MARCH, MARCH, 0));
+            assertEquals(null, cache.get(ReportCache.YEARLY, JANUARY, JANUARY + 11, 0));
+
+            cache.put(ReportCache.YEARLY, JANUARY, JANUARY + 11, 0, "2025 again");
+            Transaction moved = store.get(0);
+            moved.setDate(LocalDate.of(2025, 3, 1));
+            store.update(0, moved);
+            assertEquals(null, cache.get(ReportCache.MONTHLY, MARCH, MARCH, 0));
+            assertEquals(null, cache.get(ReportCache.YEARLY, JANUARY, JANUARY + 11, 0));
+
+            cache.put(ReportCache.MONTHLY, MARCH, MARCH, 0, "march again");
+            store.add(expense(LocalDate.of(2024, 12, 31)));
+            assertEquals("march again", cache.get(ReportCache.MONTHLY, MARCH, MARCH, 0));
+            store.remove(0);
+            assertEquals(null, cache.get(ReportCache.MONTHLY, MARCH, MARCH, 0));
+            assertEquals(2L, cache.getHits());
+            assertEquals(4L, cache.getMisses());
+        });
+
+        runner.add("Report cache misses once the budget version moves on", () -> {
+            ReportCache cache = new ReportCache();
+            cache.put(ReportCache.MONTHLY, MARCH, MARCH, 1, "march");
+            assertEquals(null, cache.get(ReportCache.MONTHLY, MARCH, MARCH, 2));
+            assertEquals(0, cache.size());
+        });
+
+        runner.add("Report cache evicts the least recently used entries past its size", () -> {
+            ReportCache cache = new ReportCache(10);
+            cache.put(ReportCache.MONTHLY, MARCH, MARCH, 0, "aaaa");
+            cache.put(ReportCache.MONTHLY, MARCH + 1, MARCH + 1, 0, "bbbb");
+            cache.get(ReportCache.MONTHLY, MARCH, MARCH, 0);
+            cache.put(ReportCache.MONTHLY, MARCH + 2, MARCH + 2, 0, "cccc");
+
+            assertEquals("aaaa", cache.get(ReportCache.MONTHLY, MARCH, MARCH, 0));
+            assertEquals(null, cache.get(ReportCache.MONTHLY, MARCH + 1, MARCH + 1, 0));
+            cache.put(ReportCache.SUMMARY, MARCH, MARCH, 0, "far too long to keep");
+            assertEquals(2, cache.size());
+        });
+
+        runner.add("Report generator shows a change made after a cached report", () -> {
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", 1234, "Shopping", "first", LocalDate.of(2025, 3, 2)));
+            ReportGenerator reports = new ReportGenerator(store, new BudgetHistory());
+            YearMonth march = YearMonth.of(2025, 3);
+            String before = render(() -> reports.generateMonthlyReport(march));
+            assertEquals(before, render(() -> reports.generateMonthlyReport(march)));
+            assertEquals(1L, reports.getCache().getHits());
+
+            store.add(Transaction.ofCents("EXPENSE", 4321, "Shopping", "second", LocalDate.of(2025, 3, 9)));
+            String after = render(() -> reports.generateMonthlyReport(march));
+            assertTrue(!after.equals(before), "the report should be rendered again");
+            assertTrue(after.contains("55.55"), "the new total should show: " + after);
+        });
+    }
+
+    private static Transaction expense(LocalDate date) {
+        return Transaction.ofCents("EXPENSE", 100, "Shopping", "row", date);
+    }
+
+    private static String render(Runnable report) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        try {
+            report.run();
+        } finally {
+            System.setOut(out);
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
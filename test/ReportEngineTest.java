@@ -0,0 +1,131 @@
+package test;
+
+import src.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static test.TestRunner.*;
+
+public class ReportEngineTest {
+    private static final String[] CATEGORIES = { "Food & Dining", "Transportation", "Shopping", "Salary" };
+
+    static void register(TestRunner runner) {
+        runner.add("Report engine totals match a scan of the rows in the period", () -> {
+            TransactionStore store = randomStore(new Random(13), 5000);
+            ReportEngine engine = new ReportEngine(store);
+            for (int year = 2023; year <= 2026; year++) {
+                assertEquals(scan(store, year), describe(engine.computeYear(year)));
+            }
+            ReportResult march = engine.computeMonth(YearMonth.of(2024, 3));
+            assertEquals(1, march.getMonthCount());
+            assertEquals(YearMonth.of(2024, 3), march.getFirstMonth());
+        });
+
+        runner.add("Report engine puts rows on month edges into the right month", () -> {
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", 100, "Shopping", "last of Jan", LocalDate.of(2025, 1, 31)));
+            store.add(Transaction.ofCents("EXPENSE", 200, "Shopping", "first of Feb", LocalDate.of(2025, 2, 1)));
+            store.add(Transaction.ofCents("EXPENSE", 400, "Shopping", "last of Dec", LocalDate.of(2024, 12, 31)));
+            store.add(Transaction.ofCents("INCOME", 800, "Salary", "first of next year", LocalDate.of(2026, 1, 1)));
+            ReportResult year = new ReportEngine(store).computeYear(2025);
+
+            assertEquals(100L, year.getMonthExpenseCents(0));
+            assertEquals(200L, year.getMonthExpenseCents(1));
+            assertEquals(0L, year.getIncomeCents());
+            assertEquals(2, year.getTransactionCount());
+            assertEquals(0, new ReportEngine(store).computeMonth(YearMonth.of(2025, 6)).getTransactionCount());
+        });
+
+        runner.add("Report engine sums cents exactly where doubles would drift", () -> {
+            TransactionStore store = new TransactionStore();
+            for (int i = 0; i < 100_000; i++) {
+                store.add(Transaction.ofCents("EXPENSE", 10, "Shopping", "dime", LocalDate.of(2025, 5, 1 + i % 31)));
+            }
+            ReportResult may = new ReportEngine(store).computeMonth(YearMonth.of(2025, 5));
+            assertEquals(1_000_000L, may.getExpenseCents());
+            assertEquals(-1_000_000L, may.getNetCents());
+        });
+
+        runner.add("Report engine gives identical results in parallel and in sequence", () -> {
+            // Enough rows in one year to be split into several chunks
+            TransactionStore store = new TransactionStore();
+            Random random = new Random(14);
+            for (int i = 0; i < 400_000; i++) {
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                String type = category.equals("Salary") ? "INCOME" : "EXPENSE";
+                store.add(Transaction.ofCents(type, random.nextInt(1_000_000) - 5000, category, "row",
+                                              LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365))));
+            }
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                ReportEngine sequential = new ReportEngine(store);
+                ReportEngine parallel = new ReportEngine(store, pool);
+                assertEquals(describe(sequential.computeYear(2025)), describe(parallel.computeYear(2025)));
+                assertEquals(describe(sequential.computeMonth(YearMonth.of(2025, 7))),
+                             describe(parallel.computeMonth(YearMonth.of(2025, 7))));
+            } finally {
+                pool.shutdown();
+            }
+        });
+    }
+
+    private static TransactionStore randomStore(Random random, int rows) {
+        TransactionStore store = new TransactionStore();
+        for (int i = 0; i < rows; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String type = category.equals("Salary") ? "INCOME" : "EXPENSE";
+            LocalDate date = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(1461));
+            store.add(Transaction.ofCents(type, random.nextInt(1_000_000) - 5000, category, "row", date));
+        }
+        return store;
+    }
+
+    // Every figure of a yearly result, for comparing two computations of it
+    private static String describe(ReportResult result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(result.getTransactionCount()).append(' ').append(result.getIncomeCents())
+          .append(' ').append(result.getExpenseCents()).append('\n');
+        for (int month = 0; month < result.getMonthCount(); month++) {
+            sb.append(result.getMonthIncomeCents(month)).append('/').append(result.getMonthExpenseCents(month)).append(' ');
+        }
+        sb.append('\n');
+        for (String category : CATEGORIES) {
+            sb.append(category).append('=').append(result.getCategoryExpenseCents(Category.intern(category))).append(' ');
+        }
+        return sb.toString();
+    }
+
+    // The same figures for a year, by brute force over every row
+    private static String scan(TransactionStore store, int year) {
+        long[] income = new long[12];
+        long[] expenses = new long[12];
+        Map<String, Long> byCategory = new HashMap<>();
+        int count = 0;
+        for (int row = 0; row < store.size(); row++) {
+            LocalDate date = store.getDate(row);
+            if (date.getYear() != year) continue;
+            count++;
+            int month = date.getMonthValue() - 1;
+            if (store.isIncome(row)) {
+                income[month] += store.getAmountCents(row);
+            } else {
+                expenses[month] += store.getAmountCents(row);
+                byCategory.merge(store.getCategory(row), store.getAmountCents(row), Long::sum);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(count).append(' ').append(Arrays.stream(income).sum())
+          .append(' ').append(Arrays.stream(expenses).sum()).append('\n');
+        for (int month = 0; month < 12; month++) {
+            sb.append(income[month]).append('/').append(expenses[month]).append(' ');
+        }
+        sb.append('\n');
+        for (String category : CATEGORIES) {
+            sb.append(category).append('=').append(byCategory.getOrDefault(category, 0L)).append(' ');
+        }
+        return sb.toString();
+    }
+}
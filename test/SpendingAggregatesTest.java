@@ -0,0 +1,84 @@
+package test;
+
+import src.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class SpendingAggregatesTest {
+    private static final String[] CATEGORIES = { "Food & Dining", "Transportation", "Shopping", "Salary" };
+
+    static void register(TestRunner runner) {
+        runner.add("Aggregates kept up through adds, edits and deletes match a rebuild", () -> {
+            Random random = new Random(6);
+            TransactionStore store = new TransactionStore();
+            SpendingAggregates live = store.getAggregates();
+            for (int step = 0; step < 3000; step++) {
+                int action = random.nextInt(10);
+                if (store.isEmpty() || action < 5) {
+                    store.add(random(random));
+                } else if (action < 8) {
+                    store.update(random.nextInt(store.size()), random(random));
+                } else if (action < 9) {
+                    store.remove(random.nextInt(store.size()));
+                } else {
+                    BitSet rows = new BitSet();
+                    for (int i = 0; i < 5; i++) rows.set(random.nextInt(store.size()));
+                    store.removeAll(rows);
+                }
+            }
+
+            SpendingAggregates rebuilt = new SpendingAggregates(store);
+            for (int m = 0; m < 30; m++) {
+                YearMonth month = YearMonth.of(2024, 1).plusMonths(m);
+                for (byte type : new byte[] { TransactionStore.INCOME, TransactionStore.EXPENSE }) {
+                    assertEquals(rebuilt.getMonthTotal(month, type), live.getMonthTotal(month, type));
+                    for (String category : CATEGORIES) {
+                        int id = Category.intern(category);
+                        assertEquals(rebuilt.getCents(month, id, type), live.getCents(month, id, type));
+                    }
+                }
+            }
+        });
+
+        runner.add("Aggregates sum each month and category of the rows", () -> {
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", 1250, "Food & Dining", "lunch", LocalDate.of(2025, 3, 3)));
+            store.add(Transaction.ofCents("EXPENSE", 750, "Food & Dining", "dinner", LocalDate.of(2025, 3, 31)));
+            store.add(Transaction.ofCents("EXPENSE", 400, "Transportation", "bus", LocalDate.of(2025, 3, 15)));
+            store.add(Transaction.ofCents("EXPENSE", 999, "Food & Dining", "april", LocalDate.of(2025, 4, 1)));
+            store.add(Transaction.ofCents("INCOME", 300000, "Salary", "pay", LocalDate.of(2025, 3, 1)));
+            SpendingAggregates aggregates = store.getAggregates();
+            int food = Category.intern("Food & Dining");
+            YearMonth march = YearMonth.of(2025, 3);
+
+            assertEquals(2000L, aggregates.getCents(march, food, TransactionStore.EXPENSE));
+            assertEquals(2400L, aggregates.getMonthTotal(march, TransactionStore.EXPENSE));
+            assertEquals(300000L, aggregates.getMonthTotal(march, TransactionStore.INCOME));
+            assertEquals(999L, aggregates.getCents(YearMonth.of(2025, 4), food, TransactionStore.EXPENSE));
+            assertEquals(0L, aggregates.getCents(YearMonth.of(1999, 1), food, TransactionStore.EXPENSE));
+        });
+
+        runner.add("Aggregates copy stays put while the store changes", () -> {
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", 500, "Shopping", "socks", LocalDate.of(2025, 5, 5)));
+            SpendingAggregates copy = store.getAggregates().copy();
+            store.add(Transaction.ofCents("EXPENSE", 700, "Shopping", "shoes", LocalDate.of(2025, 5, 6)));
+            store.add(Transaction.ofCents("EXPENSE", 100, "Shopping", "earlier", LocalDate.of(2020, 1, 1)));
+
+            assertEquals(500L, copy.getMonthTotal(YearMonth.of(2025, 5), TransactionStore.EXPENSE));
+            assertEquals(1200L, store.getAggregates().getMonthTotal(YearMonth.of(2025, 5), TransactionStore.EXPENSE));
+            assertEquals(0L, copy.getMonthTotal(YearMonth.of(2020, 1), TransactionStore.EXPENSE));
+        });
+    }
+
+    private static Transaction random(Random random) {
+        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        String type = category.equals("Salary") ? "INCOME" : "EXPENSE";
+        LocalDate date = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(800));
+        return Transaction.ofCents(type, 1 + random.nextInt(100_000), category, "row", date);
+    }
+}
@@ -0,0 +1,100 @@
+package test;
+
+import src.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class StatementImporterTest {
+    static void register(TestRunner runner) {
+        runner.add("Statement import maps columns from the header and infers type and category", () -> withTempDir(dir -> {
+            Path file = write(dir, "Amount,Memo,Posted Date\n"
+                + "-12.50,\"Coffee, with  a friend\",03/02/2025\n"
+                + "2500,ACME payroll,2025-02-28\n"
+                + "-80,Something else,2025-02-10\n");
+            TransactionStore store = new TransactionStore();
+            StatementImporter.ImportResult result = new StatementImporter(new Ledger(store)).importFile(file);
+
+            assertEquals(null, result.getFailure());
+            assertEquals(3L, result.getImported());
+            assertEquals(3, store.size());
+            assertEquals("EXPENSE,12.50,Food & Dining,Coffee; with a friend,2025-02-03", withoutId(store, 0));
+            assertEquals("INCOME,2500.00,Salary,ACME payroll,2025-02-28", withoutId(store, 1));
+            assertEquals("EXPENSE,80.00,Miscellaneous,Something else,2025-02-10", withoutId(store, 2));
+            assertTrue(store.getId(0) < store.getId(1) && store.getId(1) < store.getId(2), "ids follow file order");
+        }));
+
+        runner.add("Statement import rejects bad rows by line and skips duplicates", () -> withTempDir(dir -> {
+            Path file = write(dir, "Date,Description,Amount,Category,Type\n"
+                + "2025-01-05,bus,4.00,Transportation,debit\n"
+                + "2025-01-05,bus,4.00,Transportation,debit\n"
+                + "2025-01-06,lunch,9.99,Food & Dining,expense\n"
+                + "yesterday,bad date,1.00,Shopping,debit\n"
+                + "2025-01-07,bad amount,lots,Shopping,debit\n"
+                + "2025-01-08,bad type,1.00,Shopping,sideways\n"
+                + "2025-01-09,wrong category,1.00,Salary,debit\n"
+                + "2025-01-10,nothing,0,Shopping,debit\n"
+                + "2025-01-11,short\n");
+            TransactionStore store = new TransactionStore();
+            store.add(Transaction.ofCents("EXPENSE", 999, "Food & Dining", "lunch", LocalDate.of(2025, 1, 6)));
+            StatementImporter.ImportResult result = new StatementImporter(new Ledger(store)).importFile(file);
+
+            assertEquals(1L, result.getImported());
+            assertEquals(2L, result.getDuplicates());
+            assertEquals(2, store.size());
+            List<Long> lines = new ArrayList<>();
+            for (StatementImporter.Rejected rejected : result.getRejected()) lines.add(rejected.lineNumber);
+            assertEquals(Arrays.asList(5L, 6L, 7L, 8L, 9L, 10L), lines);
+        }));
+
+        runner.add("Statement import reads a file without a header in the default column order", () -> withTempDir(dir -> {
+            Path file = write(dir, "2025-04-01,Netflix,-15.99\n2025-04-02,Dividend,42.00,Investments\n");
+            TransactionStore store = new TransactionStore();
+            StatementImporter.ImportResult result = new StatementImporter(new Ledger(store)).importFile(file);
+
+            assertEquals(2L, result.getImported());
+            assertEquals("EXPENSE,15.99,Entertainment,Netflix,2025-04-01", withoutId(store, 0));
+            assertEquals("INCOME,42.00,Investments,Dividend,2025-04-02", withoutId(store, 1));
+        }));
+
+        runner.add("Statement import with a header it cannot use rejects rows instead of failing", () -> withTempDir(dir -> {
+            Path file = write(dir, "Date,Amount\n2025-01-01,5.00\n");
+            TransactionStore store = new TransactionStore();
+            StatementImporter.ImportResult result = new StatementImporter(new Ledger(store)).importFile(file);
+
+            assertEquals(null, result.getFailure());
+            assertEquals(0L, result.getImported());
+            assertEquals(2, result.getRejected().size());
+            assertEquals(0, store.size());
+        }));
+
+        runner.add("Statement import of many rows keeps every row once and in order", () -> withTempDir(dir -> {
+            StringBuilder csv = new StringBuilder("Date,Description,Amount\n");
+            for (int i = 0; i < 20_000; i++) {
+                csv.append(LocalDate.of(2024, 1, 1).plusDays(i % 700)).append(",shop item ").append(i)
+                   .append(",-").append(1 + i % 500).append(".25\n");
+            }
+            Path file = write(dir, csv.toString());
+            TransactionStore store = new TransactionStore();
+            StatementImporter.ImportResult result = new StatementImporter(new Ledger(store)).importFile(file);
+
+            assertEquals(20_000L, result.getImported());
+            for (int row = 0; row < store.size(); row++) {
+                assertEquals("shop item " + row, store.getDescription(row));
+            }
+        }));
+    }
+
+    private static Path write(Path dir, String text) throws Exception {
+        return Files.write(dir.resolve("statement.csv"), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String withoutId(TransactionStore store, int row) {
+        String csv = store.get(row).toCSVString();
+        return csv.substring(csv.indexOf(',') + 1);
+    }
+}
@@ -0,0 +1,98 @@
+package test;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Minimal runner for the behaviour tests, so they run with nothing but a JDK
+public class TestRunner {
+    public interface Test {
+        void run() throws Exception;
+    }
+
+    private final Map<String, Test> tests = new LinkedHashMap<>();
+
+    public void add(String name, Test test) {
+        tests.put(name, test);
+    }
+
+    public static void main(String[] args) {
+        TestRunner runner = new TestRunner();
+        TransactionStoreTest.register(runner);
+        TransactionJournalTest.register(runner);
+        MappedTransactionLoaderTest.register(runner);
+        LedgerSnapshotTest.register(runner);
+        MoneyTest.register(runner);
+        LedgerTest.register(runner);
+        SpendingAggregatesTest.register(runner);
+        DateIndexTest.register(runner);
+        BackupStoreTest.register(runner);
+        ReportCacheTest.register(runner);
+        ReportEngineTest.register(runner);
+        StatementImporterTest.register(runner);
+        DuplicateIndexTest.register(runner);
+        DescriptionIndexTest.register(runner);
+        BatchRunnerTest.register(runner);
+        TransactionPartitionsTest.register(runner);
+        BudgetHistoryTest.register(runner);
+        BudgetAlertsTest.register(runner);
+        LedgerServerTest.register(runner);
+
+        int failed = 0;
+        for (Map.Entry<String, Test> test : runner.tests.entrySet()) {
+            if (args.length > 0 && !test.getKey().contains(args[0])) continue;
+            try {
+                test.getValue().run();
+                System.out.println("PASS " + test.getKey());
+            } catch (Throwable e) {
+                failed++;
+                System.out.println("FAIL " + test.getKey() + ": " + e);
+                e.printStackTrace(System.out);
+            }
+        }
+        System.out.println(failed == 0 ? "All tests passed." : failed + " test(s) failed.");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // Assertions
+    public static void assertEquals(Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError("expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    public static void assertThrows(Class<? extends Throwable> type, Test code) {
+        try {
+            code.run();
+        } catch (Throwable e) {
+            if (type.isInstance(e)) return;
+            throw new AssertionError("expected " + type.getSimpleName() + " but got " + e, e);
+        }
+        throw new AssertionError("expected " + type.getSimpleName() + " to be thrown");
+    }
+
+    // Scratch directory removed once the test is done
+    public static void withTempDir(PathTest test) throws Exception {
+        Path dir = Files.createTempDirectory("pfm-test");
+        try {
+            test.run(dir);
+        } finally {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            } catch (IOException e) {
+                System.err.println("Error removing " + dir + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public interface PathTest {
+        void run(Path dir) throws Exception;
+    }
+}
@@ -0,0 +1,118 @@
+package test;
+
+import src.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class TransactionJournalTest {
+    private static final String[] BASE = {
+        "1,INCOME,2500.00,Salary,pay,2025-03-01",
+        "2,EXPENSE,40.00,Food & Dining,groceries,2025-03-02",
+        "3,EXPENSE,12.50,Transportation,bus pass,2025-03-03",
+    };
+
+    static void register(TestRunner runner) {
+        runner.add("Journal replay over the base file rebuilds adds, edits and deletes", () -> withTempDir(dir -> {
+            File journalFile = dir.resolve("transactions.journal").toFile();
+            TransactionStore live = load(BASE);
+            TransactionJournal journal = new TransactionJournal(journalFile);
+            live.addListener(journal);
+
+            live.add(Transaction.ofCents("EXPENSE", 899, "Entertainment", "cinema", LocalDate.of(2025, 3, 5)));
+            Transaction edited = live.get(1);
+            edited.setAmountCents(4250);
+            edited.setDate(LocalDate.of(2025, 2, 27));
+            live.update(1, edited);
+            journal.flush();
+
+            live.remove(2);
+            live.add(Transaction.ofCents("INCOME", 1000, "Freelance", "tip", LocalDate.of(2025, 3, 6)));
+            journal.flush();
+            assertEquals(4L, journal.getJournalEntries());
+
+            TransactionStore replayed = load(BASE);
+            TransactionJournal reader = new TransactionJournal(journalFile);
+            reader.replay(replayed);
+
+            assertEquals(4L, reader.getJournalEntries());
+            assertEquals(rows(live), rows(replayed));
+        }));
+
+        runner.add("Journal replay keeps stored ids and does not use up new ones", () -> withTempDir(dir -> {
+            File journalFile = dir.resolve("transactions.journal").toFile();
+            TransactionStore live = load(BASE);
+            TransactionJournal journal = new TransactionJournal(journalFile);
+            live.addListener(journal);
+            for (int i = 0; i < 10; i++) {
+                live.add(Transaction.ofCents("EXPENSE", 100 + i, "Shopping", "item " + i, LocalDate.of(2025, 4, 1)));
+            }
+            journal.flush();
+
+            int before = Transaction.ofCents("EXPENSE", 1, "Shopping", "probe", LocalDate.now()).getId();
+            new TransactionJournal(journalFile).replay(load(BASE));
+            int after = Transaction.ofCents("EXPENSE", 1, "Shopping", "probe", LocalDate.now()).getId();
+            assertEquals(before + 1, after);
+        }));
+
+        runner.add("Journal replay keeps commas in descriptions and skips torn or malformed lines", () -> withTempDir(dir -> {
+            Path journalFile = dir.resolve("transactions.journal");
+            Files.write(journalFile, ("A,7,EXPENSE,0.99,Food & Dining,coffee, again,2025-01-03\n"
+                + "U,2,EXPENSE,41.00,Food & Dining,groceries, and more,2025-03-02\n"
+                + "D,x\n"
+                + "D,3\n"
+                + "garbage\n"
+                + "A,8,EXPENSE,5.00,Shopp").getBytes(StandardCharsets.UTF_8));
+
+            TransactionStore replayed = load(BASE);
+            TransactionJournal reader = new TransactionJournal(journalFile.toFile());
+            reader.replay(replayed);
+
+            assertEquals(6L, reader.getJournalEntries());
+            assertEquals(3L, reader.getSkippedEntries());
+            assertEquals(Arrays.asList("1,INCOME,2500.00,Salary,pay,2025-03-01",
+                                       "2,EXPENSE,41.00,Food & Dining,groceries, and more,2025-03-02",
+                                       "7,EXPENSE,0.99,Food & Dining,coffee, again,2025-01-03"), rows(replayed));
+
+            TransactionJournal counter = new TransactionJournal(journalFile.toFile());
+            counter.countEntries();
+            assertEquals(6L, counter.getJournalEntries());
+        }));
+
+        runner.add("Journal reset empties the log so replay changes nothing", () -> withTempDir(dir -> {
+            File journalFile = dir.resolve("transactions.journal").toFile();
+            TransactionStore live = load(BASE);
+            TransactionJournal journal = new TransactionJournal(journalFile);
+            live.addListener(journal);
+            live.remove(0);
+            journal.flush();
+            journal.reset();
+
+            assertTrue(!journalFile.exists(), "journal file should be gone");
+            TransactionStore replayed = load(BASE);
+            new TransactionJournal(journalFile).replay(replayed);
+            assertEquals(rows(load(BASE)), rows(replayed));
+        }));
+    }
+
+    private static TransactionStore load(String[] lines) {
+        TransactionStore store = new TransactionStore();
+        for (String line : lines) {
+            store.add(Transaction.fromCSVString(line));
+        }
+        return store;
+    }
+
+    private static List<String> rows(TransactionStore store) {
+        List<String> rows = new ArrayList<>();
+        for (int row = 0; row < store.size(); row++) {
+            rows.add(store.get(row).toCSVString());
+        }
+        return rows;
+    }
+}
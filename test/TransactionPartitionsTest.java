@@ -0,0 +1,120 @@
+package test;
+
+import src.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static test.TestRunner.*;
+
+public class TransactionPartitionsTest {
+    // File order is not date order: row 6 is back-dated into January after the March rows
+    private static final String TRANSACTIONS = "ID,Type,Amount,Category,Description,Date\n"
+        + "1,INCOME,3000.00,Salary,pay,2025-01-31\n"
+        + "2,EXPENSE,45.50,Food & Dining,groceries,2025-01-04\n"
+        + "3,EXPENSE,20.00,Transportation,bus pass,2025-02-03\n"
+        + "4,EXPENSE,12.25,Food & Dining,lunch, with team,2025-03-15\n"
+        + "5,INCOME,3000.00,Salary,pay,2025-03-31\n"
+        + "6,EXPENSE,9.99,Entertainment,late receipt,2025-01-20\n"
+        + "70,EXPENSE,80.00,Shopping,shoes,2025-04-02\n";
+
+    static void register(TestRunner runner) {
+        runner.add("Partitions give the earliest offset from which a month and later ones are read", () -> {
+            int january = TransactionStore.epochMonth(YearMonth.of(2025, 1));
+            TransactionPartitions partitions = new TransactionPartitions();
+            partitions.record(january + 2, 100, 4);
+            partitions.record(january + 5, 200, 9);
+            partitions.record(january, 300, 2);
+            partitions.record(january + 2, 50, 3);
+
+            assertEquals(9, partitions.getMaxId());
+            assertEquals(50L, partitions.startOf(january - 12, 1000));
+            assertEquals(50L, partitions.startOf(january + 1, 1000));
+            assertEquals(200L, partitions.startOf(january + 3, 1000));
+            assertEquals(200L, partitions.startOf(january + 5, 1000));
+            assertEquals(1000L, partitions.startOf(january + 6, 1000));
+            assertEquals(1000L, new TransactionPartitions().startOf(january, 1000));
+        });
+
+        runner.add("Partitions are ignored once the transactions file changes", () -> withTempDir(dir -> {
+            Path csv = write(dir);
+            Path index = dir.resolve("transactions.partitions");
+            TransactionPartitions partitions = new TransactionPartitions();
+            partitions.record(TransactionStore.epochMonth(YearMonth.of(2025, 1)), 40, 70);
+            partitions.write(index.toFile(), csv.toFile());
+            assertEquals(70, TransactionPartitions.read(index.toFile(), csv.toFile()).getMaxId());
+
+            Files.write(csv, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            assertEquals(null, TransactionPartitions.read(index.toFile(), csv.toFile()));
+        }));
+
+        runner.add("Paging in older months ends with the rows of a full load in file order", () -> withTempDir(dir -> {
+            write(dir);
+            List<String> full = rows(quietly(() -> lazy(dir).loadTransactions()));
+
+            DataManager dataManager = lazy(dir);
+            TransactionStore store = quietly(() -> dataManager.loadRecentTransactions(YearMonth.of(2025, 3)));
+            assertEquals(full.subList(3, 7), rows(store));
+            int probe = Transaction.ofCents("EXPENSE", 1, "Shopping", "probe", LocalDate.now()).getId();
+            assertTrue(probe > 70, "ids still on disk must not be reused: " + probe);
+
+            // The date index and totals are built before paging and must follow the shifted rows
+            assertEquals(4, store.getDateIndex().size());
+            dataManager.ensureLoaded(store, YearMonth.of(2025, 2));
+            assertEquals(full.subList(2, 7), rows(store));
+            dataManager.ensureLoaded(store, YearMonth.of(2025, 3));
+            assertEquals(5, store.getDateIndex().size());
+
+            dataManager.ensureFullyLoaded(store);
+            assertEquals(full, rows(store));
+            DateIndex index = store.getDateIndex();
+            assertEquals(7, index.size());
+            assertEquals(2, store.getId(index.rowAt(0)));
+            assertEquals(70, store.getId(index.rowAt(6)));
+        }));
+
+        runner.add("Recent load reads the whole file while journal entries wait to replay", () -> withTempDir(dir -> {
+            write(dir);
+            quietly(() -> lazy(dir).loadTransactions());
+            Files.write(dir.resolve("transactions.journal"),
+                        "D,5\n".getBytes(StandardCharsets.UTF_8));
+
+            TransactionStore store = quietly(() -> new DataManager(dir.toString(), true, false, true)
+                .loadRecentTransactions(YearMonth.of(2025, 4)));
+            assertEquals(6, store.size());
+        }));
+    }
+
+    private static Path write(Path dir) throws Exception {
+        return Files.write(dir.resolve("transactions.csv"), TRANSACTIONS.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static DataManager lazy(Path dir) {
+        return new DataManager(dir.toString(), false, false, true);
+    }
+
+    private static List<String> rows(TransactionStore store) {
+        List<String> rows = new ArrayList<>();
+        for (int row = 0; row < store.size(); row++) {
+            rows.add(store.get(row).toCSVString());
+        }
+        return rows;
+    }
+
+    // Loads with the progress messages kept off the test output
+    private static TransactionStore quietly(Supplier<TransactionStore> load) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+        try {
+            return load.get();
+        } finally {
+            System.setOut(out);
+        }
+    }
+}
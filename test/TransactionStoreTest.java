@@ -0,0 +1,116 @@
+package test;
+
+import src.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static test.TestRunner.*;
+
+public class TransactionStoreTest {
+    static void register(TestRunner runner) {
+        runner.add("Store returns every field of the transactions added to it", () -> {
+            TransactionStore store = new TransactionStore(1);
+            Transaction pay = Transaction.ofCents("INCOME", 250000, "Salary", "March pay", LocalDate.of(2025, 3, 1));
+            Transaction bus = Transaction.ofCents("EXPENSE", 1250, "Transportation", "bus, monthly", LocalDate.of(2025, 3, 3));
+            assertEquals(0, store.add(pay));
+            assertEquals(1, store.add(bus));
+
+            assertEquals(2, store.size());
+            assertEquals(pay.getId(), store.getId(0));
+            assertEquals(TransactionStore.INCOME, store.getType(0));
+            assertEquals(250000L, store.getAmountCents(0));
+            assertEquals("Transportation", store.getCategory(1));
+            assertEquals("bus, monthly", store.getDescription(1));
+            assertEquals(LocalDate.of(2025, 3, 3), store.getDate(1));
+            assertEquals(bus.toCSVString(), store.get(1).toCSVString());
+        });
+
+        runner.add("Store compacts rows on remove and removeAll and keeps ids findable", () -> {
+            TransactionStore store = new TransactionStore();
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                ids.add(store.getId(store.add(expense(100 + i, LocalDate.of(2025, 1, 1 + i)))));
+            }
+            store.remove(0);
+            BitSet marked = new BitSet();
+            marked.set(2);
+            marked.set(5);
+            marked.set(8);
+            store.removeAll(marked);
+
+            assertEquals(6, store.size());
+            List<Integer> expected = Arrays.asList(ids.get(1), ids.get(2), ids.get(4), ids.get(5), ids.get(7), ids.get(8));
+            for (int row = 0; row < store.size(); row++) {
+                assertEquals(expected.get(row), store.getId(row));
+                assertEquals(row, store.findRow(expected.get(row)));
+            }
+            assertEquals(-1, store.findRow(ids.get(0)));
+            assertEquals(-1, store.findRow(ids.get(3)));
+            assertEquals("[1, 4]", Arrays.toString(store.findRows(new int[] { ids.get(2), ids.get(3), ids.get(7) })));
+        });
+
+        runner.add("Store finds rows by id when ids are out of order", () -> {
+            TransactionStore older = new TransactionStore();
+            TransactionStore store = new TransactionStore();
+            Transaction late = expense(1, LocalDate.of(2025, 2, 1));
+            Transaction early = expense(2, LocalDate.of(2025, 1, 1));
+            store.add(late);
+            older.add(early);
+            store.appendAll(older);
+
+            assertEquals(1, store.findRow(early.getId()));
+            assertEquals(0, store.findRow(late.getId()));
+            int[] sorted = { late.getId(), early.getId() };
+            Arrays.sort(sorted);
+            assertEquals("[0, 1]", Arrays.toString(store.findRows(sorted)));
+        });
+
+        runner.add("Store reports removed rows highest first while they still hold their values", () -> {
+            TransactionStore store = new TransactionStore();
+            for (int i = 0; i < 6; i++) {
+                store.add(expense(100 * (i + 1), LocalDate.of(2025, 1, 1)));
+            }
+            List<String> events = new ArrayList<>();
+            store.addListener(new TransactionListener() {
+                public void transactionAdded(TransactionStore s, int row) {
+                    events.add("add " + row + "=" + s.getAmountCents(row));
+                }
+
+                public void transactionUpdated(TransactionStore s, int row, Transaction previous) {
+                    events.add("update " + row + " " + previous.getAmountCents() + "->" + s.getAmountCents(row));
+                }
+
+                public void transactionRemoved(TransactionStore s, int row) {
+                    events.add("remove " + row + "=" + s.getAmountCents(row));
+                }
+            });
+
+            Transaction edited = store.get(1);
+            edited.setAmountCents(250);
+            store.update(1, edited);
+            BitSet marked = new BitSet();
+            marked.set(0);
+            marked.set(4);
+            store.removeAll(marked);
+            store.add(expense(900, LocalDate.of(2025, 1, 2)));
+
+            assertEquals(Arrays.asList("update 1 200->250", "remove 4=500", "remove 0=100", "add 4=900"), events);
+        });
+
+        runner.add("Store month numbering agrees with the calendar", () -> {
+            LocalDate day = LocalDate.of(1969, 12, 1);
+            for (int i = 0; i < 40_000; i += 13) {
+                LocalDate date = day.plusDays(i);
+                int month = TransactionStore.epochMonth((int) date.toEpochDay());
+                assertEquals(TransactionStore.epochMonth(YearMonth.from(date)), month);
+                assertEquals(YearMonth.from(date), TransactionStore.toYearMonth(month));
+            }
+        });
+    }
+
+    private static Transaction expense(long cents, LocalDate date) {
+        return Transaction.ofCents("EXPENSE", cents, "Shopping", "row", date);
+    }
+}